@@ -0,0 +1,44 @@
+package com.tonediscord.tone.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// Admin routes rebuild aggregates and import Discord history, so they need the shared bearer token.
+// Without a configured token they are switched off rather than left open.
+public class AdminTokenInterceptor implements HandlerInterceptor {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final byte[] token;
+
+    public AdminTokenInterceptor(String token) {
+        this.token = token != null ? token.trim().getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (token.length == 0) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Admin API is disabled");
+            return false;
+        }
+
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        byte[] presented = authorization != null && authorization.startsWith(BEARER_PREFIX)
+                ? authorization.substring(BEARER_PREFIX.length()).trim().getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        // Constant-time comparison, so response timing does not reveal how much of the token matched
+        if (!MessageDigest.isEqual(token, presented)) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return false;
+        }
+        return true;
+    }
+}
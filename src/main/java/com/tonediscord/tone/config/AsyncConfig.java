@@ -0,0 +1,123 @@
+package com.tonediscord.tone.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    public static final String MESSAGE_PROCESSING_EXECUTOR = "messageProcessingExecutor";
+    private static final String THREAD_PREFIX = "message-processing-";
+
+    @Value("${tone.processing.core-pool-size:4}")
+    private int corePoolSize;
+
+    @Value("${tone.processing.max-pool-size:16}")
+    private int maxPoolSize;
+
+    @Value("${tone.processing.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${tone.processing.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Bean(name = MESSAGE_PROCESSING_EXECUTOR)
+    public TaskExecutor messageProcessingExecutor(MeterRegistry meterRegistry) {
+        Counter rejected = meterRegistry.counter("tone.processing.executor.rejected");
+
+        if (virtualThreads) {
+            if (Runtime.version().feature() >= 21) {
+                return virtualThreadExecutor(meterRegistry, rejected);
+            }
+            logger.warn("tone.processing.virtual-threads requires Java 21+, falling back to a platform thread pool");
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(THREAD_PREFIX);
+        executor.setRejectedExecutionHandler(new BacklogFallbackPolicy(rejected));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        Gauge.builder("tone.processing.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("tone.processing.executor.queued", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("tone.processing.executor.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    private TaskExecutor virtualThreadExecutor(MeterRegistry meterRegistry, Counter rejected) {
+        SimpleAsyncTaskExecutor delegate = new SimpleAsyncTaskExecutor(THREAD_PREFIX);
+        delegate.setVirtualThreads(true);
+
+        // Virtual threads are cheap, but the work behind them (database, model API) is not, so keep a hard bound
+        Semaphore permits = new Semaphore(maxPoolSize + queueCapacity);
+        Gauge.builder("tone.processing.executor.active", permits,
+                        p -> maxPoolSize + queueCapacity - p.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("tone.processing.executor.queued", () -> 0).register(meterRegistry);
+
+        logger.info("Message processing runs on virtual threads (limit {})", maxPoolSize + queueCapacity);
+        return task -> {
+            if (!permits.tryAcquire()) {
+                rejected.increment();
+                throw new TaskRejectedException("Message processing executor saturated, leaving work for the backlog");
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        };
+    }
+
+    // Rejected messages are already stored with processed=false, so the backlog drainer will score them later
+    static class BacklogFallbackPolicy implements RejectedExecutionHandler {
+
+        private final Counter rejected;
+
+        BacklogFallbackPolicy(Counter rejected) {
+            this.rejected = rejected;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            rejected.increment();
+            logger.debug("Message processing executor saturated ({} queued), leaving work for the backlog",
+                    executor.getQueue().size());
+            throw new RejectedExecutionException("Message processing executor saturated");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.tonediscord.tone.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final String ADMIN_PATHS = "/api/v1/tone/admin/**";
+    // Public reads and analysis are shared cross-origin; admin routes never are
+    private static final String[] CORS_PATHS = {"/api/v1/tone/guilds/**", "/api/v1/tone/analyze/**",
+            "/api/v1/tone/debug/**"};
+
+    @Value("${tone.api.async.core-pool-size:2}")
+    private int corePoolSize;
+
+    @Value("${tone.api.async.max-pool-size:8}")
+    private int maxPoolSize;
+
+    @Value("${tone.api.async.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${tone.api.admin-token:}")
+    private String adminToken;
+
+    @Value("${tone.api.cors.allowed-origins:*}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdminTokenInterceptor(adminToken)).addPathPatterns(ADMIN_PATHS);
+    }
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        if (allowedOrigins.length == 0) {
+            return;
+        }
+        for (String path : CORS_PATHS) {
+            registry.addMapping(path)
+                    .allowedOrigins(allowedOrigins)
+                    .allowedMethods("GET", "POST")
+                    // Lets the dashboard revalidate cached responses with If-None-Match
+                    .exposedHeaders(HttpHeaders.ETAG);
+        }
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Streamed (NDJSON) responses are written from this pool. Boot's applicationTaskExecutor backs off because
+        // AsyncConfig defines its own executor, which would leave MVC on a thread-per-task SimpleAsyncTaskExecutor.
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.initialize();
+        configurer.setTaskExecutor(executor);
+    }
+}
@@ -1,47 +1,142 @@
 package com.tonediscord.tone.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tonediscord.tone.dto.GuildStats;
 import com.tonediscord.tone.dto.LeaderboardEntry;
 import com.tonediscord.tone.dto.SentimentResponse;
 import com.tonediscord.tone.entity.DiscordMessage;
+import com.tonediscord.tone.entity.SentimentRollup;
 import com.tonediscord.tone.entity.UserSentimentSummary;
 import com.tonediscord.tone.repository.DiscordMessageRepository;
+import com.tonediscord.tone.repository.SentimentRollupRepository;
 import com.tonediscord.tone.repository.UserSentimentSummaryRepository;
+import com.tonediscord.tone.service.DiscordBotService;
+import com.tonediscord.tone.service.GuildResponseCache;
+import com.tonediscord.tone.service.HistoryBackfillService;
 import com.tonediscord.tone.service.SentimentAnalysisService;
+import com.tonediscord.tone.service.SentimentRollupAggregator;
+import com.tonediscord.tone.service.VibeWindowTracker;
+import net.dv8tion.jda.api.entities.Guild;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/tone")
-@CrossOrigin(origins = "*") // For development - configure properly for production
 public class ToneController {
     
+    private static final DateTimeFormatter HOUR_KEY = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00");
+    private static final DateTimeFormatter DAY_KEY = DateTimeFormatter.ISO_LOCAL_DATE;
+    
     private final DiscordMessageRepository messageRepository;
     private final UserSentimentSummaryRepository summaryRepository;
     private final SentimentAnalysisService sentimentService;
+    private final SentimentRollupRepository rollupRepository;
+    private final SentimentRollupAggregator rollupAggregator;
+    private final VibeWindowTracker vibeWindowTracker;
+    private final HistoryBackfillService backfillService;
+    private final DiscordBotService discordBotService;
+    private final GuildResponseCache responseCache;
+    private final ObjectReader bulkReader;
+    
+    @Value("${tone.api.max-limit:100}")
+    private int maxLimit;
+    
+    @Value("${tone.api.max-history-days:365}")
+    private int maxHistoryDays;
+    
+    @Value("${tone.vibe.window-minutes:360}")
+    private int vibeWindowMinutes;
+    
+    @Value("${tone.api.bulk-parallelism:32}")
+    private int bulkParallelism;
 
     public ToneController(DiscordMessageRepository messageRepository,
                          UserSentimentSummaryRepository summaryRepository,
-                         SentimentAnalysisService sentimentService) {
+                         SentimentAnalysisService sentimentService,
+                         SentimentRollupRepository rollupRepository,
+                         SentimentRollupAggregator rollupAggregator,
+                         VibeWindowTracker vibeWindowTracker,
+                         HistoryBackfillService backfillService,
+                         DiscordBotService discordBotService,
+                         GuildResponseCache responseCache,
+                         ObjectMapper objectMapper) {
         this.messageRepository = messageRepository;
         this.summaryRepository = summaryRepository;
         this.sentimentService = sentimentService;
+        this.rollupRepository = rollupRepository;
+        this.rollupAggregator = rollupAggregator;
+        this.vibeWindowTracker = vibeWindowTracker;
+        this.backfillService = backfillService;
+        this.discordBotService = discordBotService;
+        this.responseCache = responseCache;
+        this.bulkReader = objectMapper.readerFor(JsonNode.class);
     }
 
     @PostMapping("/analyze")
-    public ResponseEntity<SentimentResponse> analyzeSentiment(@RequestBody Map<String, String> request) {
+    public Mono<ResponseEntity<SentimentResponse>> analyzeSentiment(@RequestBody Map<String, String> request) {
         String text = request.get("text");
         if (text == null || text.trim().isEmpty()) {
-            return ResponseEntity.badRequest().build();
+            return Mono.just(ResponseEntity.badRequest().build());
         }
         
-        SentimentResponse sentiment = sentimentService.analyzeSentiment(text);
-        return ResponseEntity.ok(sentiment);
+        // No score is better than a made-up NEUTRAL when the model cannot be reached
+        return sentimentService.analyzeSentimentAsync(text)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()));
+    }
+
+    @PostMapping(value = "/analyze/bulk",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SentimentResponse> analyzeBulk(InputStream body) {
+        // Texts are read from the body only as fast as results are written out, so memory stays flat for any size.
+        // Concurrent texts share the batcher's model requests; flatMapSequential keeps the output in input order.
+        return Flux.using(() -> bulkReader.<JsonNode>readValues(body),
+                        items -> Flux.fromIterable(() -> items),
+                        this::closeQuietly)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapSequential(this::analyzeBulkItem, bulkParallelism);
+    }
+
+    private void closeQuietly(MappingIterator<JsonNode> items) {
+        try {
+            items.close();
+        } catch (IOException e) {
+            // The request body is closed by the container either way
+        }
+    }
+
+    private Mono<SentimentResponse> analyzeBulkItem(JsonNode item) {
+        // Accepts "text" or {"text": "..."}; anything unscoreable gets a result with no label or score
+        JsonNode text = item.isTextual() ? item : item.path("text");
+        if (!text.isTextual() || text.asText().isBlank()) {
+            return Mono.just(new SentimentResponse());
+        }
+        return sentimentService.analyzeSentimentAsync(text.asText())
+                .onErrorResume(e -> Mono.just(new SentimentResponse()));
     }
 
     @GetMapping("/debug/config")
@@ -55,41 +150,26 @@ public class ToneController {
 
     @GetMapping("/guilds/{guildId}/stats")
     public ResponseEntity<Map<String, Object>> getGuildStats(@PathVariable String guildId) {
-        List<UserSentimentSummary> summaries = summaryRepository.findByGuildId(guildId);
-        
-        Long totalMessages = summaries.stream()
-                .mapToLong(s -> s.getTotalMessages().longValue())
-                .sum();
-        
-        Double avgSentiment = summaryRepository.getGuildAverageSentiment(guildId);
-        if (avgSentiment == null) avgSentiment = 0.0;
-        
-        Long positiveMessages = summaries.stream()
-                .mapToLong(s -> s.getPositiveMessages().longValue())
-                .sum();
-        
-        Long negativeMessages = summaries.stream()
-                .mapToLong(s -> s.getNegativeMessages().longValue())
-                .sum();
-        
-        Long neutralMessages = summaries.stream()
-                .mapToLong(s -> s.getNeutralMessages().longValue())
-                .sum();
+        return cached(guildId, GuildResponseCache.Group.SUMMARY, "stats", () -> buildGuildStats(guildId));
+    }
+
+    private Map<String, Object> buildGuildStats(String guildId) {
+        GuildStats guildStats = summaryRepository.getGuildStats(guildId);
         
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalMessages", totalMessages);
-        stats.put("activeUsers", summaries.size());
-        stats.put("averageSentiment", avgSentiment);
-        stats.put("positiveMessages", positiveMessages);
-        stats.put("negativeMessages", negativeMessages);
-        stats.put("neutralMessages", neutralMessages);
+        stats.put("totalMessages", guildStats.totalMessages());
+        stats.put("activeUsers", guildStats.activeUsers());
+        stats.put("averageSentiment", guildStats.averageSentiment());
+        stats.put("positiveMessages", guildStats.positiveMessages());
+        stats.put("negativeMessages", guildStats.negativeMessages());
+        stats.put("neutralMessages", guildStats.neutralMessages());
         stats.put("sentimentDistribution", Map.of(
-                "positive", positiveMessages,
-                "negative", negativeMessages,
-                "neutral", neutralMessages
+                "positive", guildStats.positiveMessages(),
+                "negative", guildStats.negativeMessages(),
+                "neutral", guildStats.neutralMessages()
         ));
         
-        return ResponseEntity.ok(stats);
+        return stats;
     }
 
     @GetMapping("/guilds/{guildId}/leaderboard")
@@ -97,21 +177,24 @@ public class ToneController {
             @PathVariable String guildId,
             @RequestParam(defaultValue = "10") int limit) {
         
-        List<LeaderboardEntry> meanest = summaryRepository.findMeanestUsers(guildId)
+        Pageable topK = topK(limit);
+        return cached(guildId, GuildResponseCache.Group.SUMMARY, "leaderboard:" + topK.getPageSize(),
+                () -> buildLeaderboard(guildId, topK));
+    }
+
+    private Map<String, List<LeaderboardEntry>> buildLeaderboard(String guildId, Pageable topK) {
+        List<LeaderboardEntry> meanest = summaryRepository.findMeanestUsers(guildId, topK)
                 .stream()
-                .limit(limit)
                 .map(this::toLeaderboardEntry)
                 .collect(Collectors.toList());
         
-        List<LeaderboardEntry> nicest = summaryRepository.findMostPositiveUsers(guildId)
+        List<LeaderboardEntry> nicest = summaryRepository.findMostPositiveUsers(guildId, topK)
                 .stream()
-                .limit(limit)
                 .map(this::toLeaderboardEntry)
                 .collect(Collectors.toList());
         
-        List<LeaderboardEntry> mostActive = summaryRepository.findMostActiveUsers(guildId)
+        List<LeaderboardEntry> mostActive = summaryRepository.findMostActiveUsers(guildId, topK)
                 .stream()
-                .limit(limit)
                 .map(this::toLeaderboardEntry)
                 .collect(Collectors.toList());
         
@@ -120,42 +203,58 @@ public class ToneController {
         leaderboard.put("nicest", nicest);
         leaderboard.put("mostActive", mostActive);
         
-        return ResponseEntity.ok(leaderboard);
+        return leaderboard;
     }
 
     @GetMapping("/guilds/{guildId}/sentiment-history")
     public ResponseEntity<Map<String, Object>> getSentimentHistory(
             @PathVariable String guildId,
-            @RequestParam(defaultValue = "7") int days) {
+            @RequestParam(name = "days", defaultValue = "7") int requestedDays,
+            @RequestParam(defaultValue = "hour") String granularity) {
         
-        LocalDateTime since = LocalDateTime.now().minusDays(days);
-        List<DiscordMessage> messages = messageRepository.findByGuildIdAndTimestampBetween(
-                guildId, since, LocalDateTime.now());
+        // Out-of-range days would otherwise overflow the date math or fill the cache with one-off keys
+        int days = Math.max(1, Math.min(requestedDays, maxHistoryDays));
+        SentimentRollup.Granularity bucketSize = "day".equalsIgnoreCase(granularity)
+                ? SentimentRollup.Granularity.DAY : SentimentRollup.Granularity.HOUR;
+        return cached(guildId, GuildResponseCache.Group.ROLLUP, "sentiment-history:" + days + ":" + bucketSize,
+                () -> buildSentimentHistory(guildId, days, bucketSize));
+    }
+
+    private Map<String, Object> buildSentimentHistory(String guildId, int days, SentimentRollup.Granularity bucketSize) {
+        LocalDateTime since = bucketSize.truncate(LocalDateTime.now().minusDays(days));
+        List<SentimentRollup> buckets = rollupRepository.findSeries(
+                bucketSize, SentimentRollup.Scope.GUILD, guildId, guildId, since);
         
-        // Group by hour and calculate average sentiment
-        Map<String, Double> hourlyData = messages.stream()
-                .filter(m -> m.getSentimentScore() != null)
-                .collect(Collectors.groupingBy(
-                        m -> m.getTimestamp().toLocalDate().toString() + " " + 
-                             String.format("%02d:00", m.getTimestamp().getHour()),
-                        Collectors.averagingDouble(DiscordMessage::getSentimentScore)
-                ));
+        // Pre-aggregated buckets, so the work is per hour/day rather than per message
+        DateTimeFormatter keyFormat = bucketSize == SentimentRollup.Granularity.DAY ? DAY_KEY : HOUR_KEY;
+        Map<String, Double> series = new LinkedHashMap<>();
+        long totalMessages = 0;
+        for (SentimentRollup bucket : buckets) {
+            series.put(bucket.getBucketStart().format(keyFormat), bucket.getAverageSentiment());
+            totalMessages += bucket.getMessageCount();
+        }
         
         Map<String, Object> history = new HashMap<>();
-        history.put("hourlyData", hourlyData);
-        history.put("totalMessages", messages.size());
+        history.put(bucketSize == SentimentRollup.Granularity.DAY ? "dailyData" : "hourlyData", series);
+        history.put("totalMessages", totalMessages);
         history.put("daysCovered", days);
         
-        return ResponseEntity.ok(history);
+        return history;
     }
 
     @GetMapping("/guilds/{guildId}/recent-vibe")
     public ResponseEntity<Map<String, Object>> getRecentVibe(
             @PathVariable String guildId,
-            @RequestParam(defaultValue = "1") int hours) {
+            @RequestParam(name = "hours", defaultValue = "1") int requestedHours) {
         
-        LocalDateTime since = LocalDateTime.now().minusHours(hours);
-        Double recentSentiment = messageRepository.getAverageSentimentSince(guildId, since);
+        // Recent vibe is served from the in-memory window, so never ask for more than it holds
+        int hours = Math.max(1, Math.min(requestedHours, Math.max(1, vibeWindowMinutes / 60)));
+        return cached(guildId, GuildResponseCache.Group.WINDOW, "recent-vibe:" + hours,
+                () -> buildRecentVibe(guildId, hours));
+    }
+
+    private Map<String, Object> buildRecentVibe(String guildId, int hours) {
+        Double recentSentiment = vibeWindowTracker.getRecentAverage(guildId, Duration.ofHours(hours));
         
         if (recentSentiment == null) {
             recentSentiment = 0.0;
@@ -171,7 +270,7 @@ public class ToneController {
         vibe.put("description", getSentimentDescription(recentSentiment));
         vibe.put("hoursCovered", hours);
         
-        return ResponseEntity.ok(vibe);
+        return vibe;
     }
 
     @GetMapping("/guilds/{guildId}/extreme-messages")
@@ -179,15 +278,10 @@ public class ToneController {
             @PathVariable String guildId,
             @RequestParam(defaultValue = "5") int limit) {
         
-        List<DiscordMessage> mostPositive = messageRepository.findMostPositiveMessages(guildId)
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+        Pageable topK = topK(limit);
+        List<DiscordMessage> mostPositive = messageRepository.findMostPositiveMessages(guildId, topK);
         
-        List<DiscordMessage> mostNegative = messageRepository.findMostNegativeMessages(guildId)
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+        List<DiscordMessage> mostNegative = messageRepository.findMostNegativeMessages(guildId, topK);
         
         Map<String, List<DiscordMessage>> extremes = new HashMap<>();
         extremes.put("mostPositive", mostPositive);
@@ -196,6 +290,39 @@ public class ToneController {
         return ResponseEntity.ok(extremes);
     }
 
+    @PostMapping("/admin/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollups() {
+        int buckets = rollupAggregator.rebuild();
+        return ResponseEntity.ok(Map.of("bucketsWritten", buckets));
+    }
+
+    @PostMapping("/admin/guilds/{guildId}/backfill")
+    public ResponseEntity<HistoryBackfillService.BackfillProgress> startBackfill(@PathVariable String guildId) {
+        Guild guild = discordBotService.getGuild(guildId);
+        if (guild == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(backfillService.startBackfill(guild));
+    }
+
+    @GetMapping("/admin/guilds/{guildId}/backfill")
+    public ResponseEntity<HistoryBackfillService.BackfillProgress> getBackfillProgress(@PathVariable String guildId) {
+        HistoryBackfillService.BackfillProgress progress = backfillService.getProgress(guildId);
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
+
+    private <T> ResponseEntity<T> cached(String guildId, GuildResponseCache.Group group, String resource,
+                                         Supplier<T> loader) {
+        // With an ETag set, Spring answers a matching If-None-Match with 304 and no body
+        GuildResponseCache.CachedResponse<T> response = responseCache.get(guildId, group, resource, loader);
+        return ResponseEntity.ok().eTag(response.etag()).body(response.body());
+    }
+
+    private Pageable topK(int limit) {
+        // The limit goes into the query itself, so cap it rather than trusting the caller
+        return PageRequest.of(0, Math.max(1, Math.min(limit, maxLimit)));
+    }
+
     private LeaderboardEntry toLeaderboardEntry(UserSentimentSummary summary) {
         return new LeaderboardEntry(
                 summary.getUsername(),
@@ -0,0 +1,11 @@
+package com.tonediscord.tone.dto;
+
+// Guild-wide totals computed by one aggregate query over the user summaries
+public record GuildStats(long activeUsers, long totalMessages, long positiveMessages, long negativeMessages,
+                         long neutralMessages, double sentimentSum) {
+
+    // Weighted by message count, so a user with one message counts as much as one message
+    public double averageSentiment() {
+        return totalMessages > 0 ? sentimentSum / totalMessages : 0.0;
+    }
+}
@@ -0,0 +1,7 @@
+package com.tonediscord.tone.dto;
+
+import java.time.LocalDateTime;
+
+// Sentiment total for one guild over one wall-clock minute
+public record MinuteBucket(String guildId, LocalDateTime minute, double sentimentSum, long messageCount) {
+}
@@ -0,0 +1,12 @@
+package com.tonediscord.tone.dto;
+
+import com.tonediscord.tone.entity.SentimentRollup;
+
+import java.time.LocalDateTime;
+
+// Increments to apply to one rollup bucket in a single upsert
+public record RollupDelta(SentimentRollup.Granularity granularity, SentimentRollup.Scope scope,
+                          String guildId, String scopeId, LocalDateTime bucketStart,
+                          long messages, long positiveMessages, long negativeMessages, long neutralMessages,
+                          double sentimentSum) {
+}
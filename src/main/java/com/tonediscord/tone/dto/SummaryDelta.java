@@ -0,0 +1,7 @@
+package com.tonediscord.tone.dto;
+
+// Increments to apply to one user's sentiment summary in a single upsert
+public record SummaryDelta(String userId, String username, String guildId,
+                           int messages, int positiveMessages, int negativeMessages, int neutralMessages,
+                           double sentimentSum, double mostPositiveScore, double mostNegativeScore) {
+}
@@ -0,0 +1,28 @@
+package com.tonediscord.tone.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "aggregation_generations")
+public class AggregationGeneration {
+    
+    public static final String SUMMARY = "summary";
+    public static final String ROLLUP = "rollup";
+    
+    @Id
+    @Column(name = "name")
+    private String name;
+    
+    @Column(name = "generation", nullable = false)
+    private Long generation = 0L;
+
+    // Constructors
+    public AggregationGeneration() {}
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Long getGeneration() { return generation; }
+    public void setGeneration(Long generation) { this.generation = generation; }
+}
@@ -0,0 +1,70 @@
+package com.tonediscord.tone.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "backfill_checkpoints")
+public class BackfillCheckpoint {
+    
+    @Id
+    @Column(name = "channel_id")
+    private String channelId;
+    
+    @Column(name = "guild_id", nullable = false)
+    private String guildId;
+    
+    // Newest message covered by a finished backfill; later runs stop when they reach it
+    @Column(name = "high_water_message_id")
+    private Long highWaterMessageId;
+    
+    // Newest message seen by the run in progress, becomes the high-water mark when it finishes
+    @Column(name = "run_top_message_id")
+    private Long runTopMessageId;
+    
+    // Oldest message the run in progress has imported; paging resumes before it
+    @Column(name = "run_cursor_message_id")
+    private Long runCursorMessageId;
+    
+    @Column(name = "messages_imported", nullable = false)
+    private Long messagesImported = 0L;
+    
+    @Column(name = "last_completed_at")
+    private LocalDateTime lastCompletedAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Constructors
+    public BackfillCheckpoint() {}
+
+    public BackfillCheckpoint(String channelId, String guildId) {
+        this.channelId = channelId;
+        this.guildId = guildId;
+    }
+
+    // Getters and setters
+    public String getChannelId() { return channelId; }
+    public void setChannelId(String channelId) { this.channelId = channelId; }
+
+    public String getGuildId() { return guildId; }
+    public void setGuildId(String guildId) { this.guildId = guildId; }
+
+    public Long getHighWaterMessageId() { return highWaterMessageId; }
+    public void setHighWaterMessageId(Long highWaterMessageId) { this.highWaterMessageId = highWaterMessageId; }
+
+    public Long getRunTopMessageId() { return runTopMessageId; }
+    public void setRunTopMessageId(Long runTopMessageId) { this.runTopMessageId = runTopMessageId; }
+
+    public Long getRunCursorMessageId() { return runCursorMessageId; }
+    public void setRunCursorMessageId(Long runCursorMessageId) { this.runCursorMessageId = runCursorMessageId; }
+
+    public Long getMessagesImported() { return messagesImported; }
+    public void setMessagesImported(Long messagesImported) { this.messagesImported = messagesImported; }
+
+    public LocalDateTime getLastCompletedAt() { return lastCompletedAt; }
+    public void setLastCompletedAt(LocalDateTime lastCompletedAt) { this.lastCompletedAt = lastCompletedAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
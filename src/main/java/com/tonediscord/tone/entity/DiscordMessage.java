@@ -7,8 +7,13 @@ import java.time.LocalDateTime;
 @Table(name = "discord_messages")
 public class DiscordMessage {
     
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
+    // Sequence ids (pooled, 50 per round trip) let Hibernate and the bulk ingest path batch their inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "discord_messages_seq")
+    @SequenceGenerator(name = "discord_messages_seq", sequenceName = "discord_messages_seq",
+                       allocationSize = DiscordMessage.ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(name = "discord_message_id", unique = true, nullable = false)
@@ -50,6 +55,9 @@ public class DiscordMessage {
     @Column(name = "processed", nullable = false)
     private Boolean processed = false;
     
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+    
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -114,6 +122,9 @@ public class DiscordMessage {
     public Boolean getProcessed() { return processed; }
     public void setProcessed(Boolean processed) { this.processed = processed; }
 
+    public LocalDateTime getClaimedUntil() { return claimedUntil; }
+    public void setClaimedUntil(LocalDateTime claimedUntil) { this.claimedUntil = claimedUntil; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
@@ -0,0 +1,43 @@
+package com.tonediscord.tone.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "guild_settings")
+public class GuildSettings {
+    
+    @Id
+    @Column(name = "guild_id")
+    private String guildId;
+    
+    // Null means the guild's system channel
+    @Column(name = "alert_channel_id")
+    private String alertChannelId;
+    
+    @Column(name = "alerts_enabled", nullable = false)
+    private Boolean alertsEnabled = true;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Constructors
+    public GuildSettings() {}
+
+    public GuildSettings(String guildId) {
+        this.guildId = guildId;
+    }
+
+    // Getters and setters
+    public String getGuildId() { return guildId; }
+    public void setGuildId(String guildId) { this.guildId = guildId; }
+
+    public String getAlertChannelId() { return alertChannelId; }
+    public void setAlertChannelId(String alertChannelId) { this.alertChannelId = alertChannelId; }
+
+    public Boolean getAlertsEnabled() { return alertsEnabled; }
+    public void setAlertsEnabled(Boolean alertsEnabled) { this.alertsEnabled = alertsEnabled; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,51 @@
+package com.tonediscord.tone.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "sentiment_cache")
+public class SentimentCacheEntry {
+    
+    @Id
+    @Column(name = "cache_key", length = 16)
+    private String cacheKey;
+    
+    @Column(name = "cleaned_text", columnDefinition = "TEXT", nullable = false)
+    private String cleanedText;
+    
+    @Column(name = "sentiment_label", nullable = false)
+    private String sentimentLabel;
+    
+    @Column(name = "sentiment_score", nullable = false)
+    private Double sentimentScore;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Constructors
+    public SentimentCacheEntry() {}
+
+    public SentimentCacheEntry(String cacheKey, String cleanedText, String sentimentLabel, Double sentimentScore) {
+        this.cacheKey = cacheKey;
+        this.cleanedText = cleanedText;
+        this.sentimentLabel = sentimentLabel;
+        this.sentimentScore = sentimentScore;
+    }
+
+    // Getters and setters
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+
+    public String getCleanedText() { return cleanedText; }
+    public void setCleanedText(String cleanedText) { this.cleanedText = cleanedText; }
+
+    public String getSentimentLabel() { return sentimentLabel; }
+    public void setSentimentLabel(String sentimentLabel) { this.sentimentLabel = sentimentLabel; }
+
+    public Double getSentimentScore() { return sentimentScore; }
+    public void setSentimentScore(Double sentimentScore) { this.sentimentScore = sentimentScore; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
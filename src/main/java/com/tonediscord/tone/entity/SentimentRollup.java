@@ -0,0 +1,115 @@
+package com.tonediscord.tone.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Entity
+@Table(name = "sentiment_rollup", uniqueConstraints = @UniqueConstraint(
+        name = "uk_sentiment_rollup_bucket",
+        columnNames = {"granularity", "scope", "guild_id", "scope_id", "bucket_start"}))
+public class SentimentRollup {
+    
+    public enum Granularity {
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+        
+        private final ChronoUnit unit;
+        
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+        
+        public LocalDateTime truncate(LocalDateTime timestamp) {
+            return timestamp.truncatedTo(unit);
+        }
+    }
+    
+    // scope_id holds the guild, channel or user id depending on the scope
+    public enum Scope {
+        GUILD, CHANNEL, USER
+    }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 8, nullable = false)
+    private Granularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", length = 8, nullable = false)
+    private Scope scope;
+    
+    @Column(name = "guild_id", nullable = false)
+    private String guildId;
+    
+    @Column(name = "scope_id", nullable = false)
+    private String scopeId;
+    
+    @Column(name = "message_count", nullable = false)
+    private Long messageCount = 0L;
+    
+    @Column(name = "positive_messages", nullable = false)
+    private Long positiveMessages = 0L;
+    
+    @Column(name = "negative_messages", nullable = false)
+    private Long negativeMessages = 0L;
+    
+    @Column(name = "neutral_messages", nullable = false)
+    private Long neutralMessages = 0L;
+    
+    @Column(name = "sentiment_sum", nullable = false)
+    private Double sentimentSum = 0.0;
+    
+    @Column(name = "last_updated", nullable = false)
+    private LocalDateTime lastUpdated = LocalDateTime.now();
+
+    // Constructors
+    public SentimentRollup() {}
+
+    public Double getAverageSentiment() {
+        return messageCount > 0 ? sentimentSum / messageCount : 0.0;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Granularity getGranularity() { return granularity; }
+    public void setGranularity(Granularity granularity) { this.granularity = granularity; }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public Scope getScope() { return scope; }
+    public void setScope(Scope scope) { this.scope = scope; }
+
+    public String getGuildId() { return guildId; }
+    public void setGuildId(String guildId) { this.guildId = guildId; }
+
+    public String getScopeId() { return scopeId; }
+    public void setScopeId(String scopeId) { this.scopeId = scopeId; }
+
+    public Long getMessageCount() { return messageCount; }
+    public void setMessageCount(Long messageCount) { this.messageCount = messageCount; }
+
+    public Long getPositiveMessages() { return positiveMessages; }
+    public void setPositiveMessages(Long positiveMessages) { this.positiveMessages = positiveMessages; }
+
+    public Long getNegativeMessages() { return negativeMessages; }
+    public void setNegativeMessages(Long negativeMessages) { this.negativeMessages = negativeMessages; }
+
+    public Long getNeutralMessages() { return neutralMessages; }
+    public void setNeutralMessages(Long neutralMessages) { this.neutralMessages = neutralMessages; }
+
+    public Double getSentimentSum() { return sentimentSum; }
+    public void setSentimentSum(Double sentimentSum) { this.sentimentSum = sentimentSum; }
+
+    public LocalDateTime getLastUpdated() { return lastUpdated; }
+    public void setLastUpdated(LocalDateTime lastUpdated) { this.lastUpdated = lastUpdated; }
+}
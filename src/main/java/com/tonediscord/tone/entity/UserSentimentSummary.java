@@ -1,10 +1,13 @@
 package com.tonediscord.tone.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_sentiment_summary")
+@Table(name = "user_sentiment_summary",
+       uniqueConstraints = @UniqueConstraint(name = "uk_user_sentiment_summary_user_guild",
+                                             columnNames = {"user_id", "guild_id"}))
 public class UserSentimentSummary {
     
     @Id
@@ -32,6 +35,12 @@ public class UserSentimentSummary {
     @Column(name = "neutral_messages", nullable = false)
     private Integer neutralMessages = 0;
     
+    // Lets the column be added to a populated table; V1 then derives existing sums from average * total
+    @ColumnDefault("0.0")
+    @Column(name = "sentiment_sum", nullable = false)
+    private Double sentimentSum = 0.0;
+    
+    // Derived as sentiment_sum / total_messages, kept as a column so leaderboards can sort on it
     @Column(name = "average_sentiment", nullable = false)
     private Double averageSentiment = 0.0;
     
@@ -81,6 +90,9 @@ public class UserSentimentSummary {
     public Integer getNeutralMessages() { return neutralMessages; }
     public void setNeutralMessages(Integer neutralMessages) { this.neutralMessages = neutralMessages; }
 
+    public Double getSentimentSum() { return sentimentSum; }
+    public void setSentimentSum(Double sentimentSum) { this.sentimentSum = sentimentSum; }
+
     public Double getAverageSentiment() { return averageSentiment; }
     public void setAverageSentiment(Double averageSentiment) { this.averageSentiment = averageSentiment; }
 
@@ -108,8 +120,9 @@ public class UserSentimentSummary {
             this.neutralMessages++;
         }
         
-        // Update average sentiment
-        this.averageSentiment = ((this.averageSentiment * (this.totalMessages - 1)) + sentimentScore) / this.totalMessages;
+        // Update average sentiment from the running sum
+        this.sentimentSum += sentimentScore;
+        this.averageSentiment = this.sentimentSum / this.totalMessages;
         
         // Update extremes
         if (this.mostPositiveScore == null || sentimentScore > this.mostPositiveScore) {
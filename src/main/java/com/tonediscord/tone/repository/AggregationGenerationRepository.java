@@ -0,0 +1,26 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.entity.AggregationGeneration;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AggregationGenerationRepository extends JpaRepository<AggregationGeneration, String> {
+    
+    // Shared lock (FOR SHARE on PostgreSQL): concurrent flushes proceed, a rebuild bumping the row waits for them
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT g FROM AggregationGeneration g WHERE g.name = :name")
+    AggregationGeneration lockByName(@Param("name") String name);
+    
+    @Query("SELECT g.generation FROM AggregationGeneration g WHERE g.name = :name")
+    long findGeneration(@Param("name") String name);
+    
+    @Modifying
+    @Query("UPDATE AggregationGeneration g SET g.generation = g.generation + 1 WHERE g.name = :name")
+    int advanceGeneration(@Param("name") String name);
+}
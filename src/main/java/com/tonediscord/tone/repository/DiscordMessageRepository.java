@@ -1,8 +1,13 @@
 package com.tonediscord.tone.repository;
 
 import com.tonediscord.tone.entity.DiscordMessage;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -10,13 +15,18 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface DiscordMessageRepository extends JpaRepository<DiscordMessage, Long> {
-    
-    List<DiscordMessage> findByProcessedFalse();
-    
-    boolean existsByDiscordMessageId(String discordMessageId);
-    
-    List<DiscordMessage> findByGuildIdAndTimestampBetween(String guildId, LocalDateTime start, LocalDateTime end);
+public interface DiscordMessageRepository extends JpaRepository<DiscordMessage, Long>,
+        DiscordMessageRepositoryCustom {
+    
+    // Keyset page of unclaimed backlog rows; rows locked by another instance are skipped (lock timeout -2 = SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT dm FROM DiscordMessage dm WHERE dm.processed = false AND dm.id > :afterId " +
+           "AND dm.createdAt < :createdBefore AND (dm.claimedUntil IS NULL OR dm.claimedUntil < :now) ORDER BY dm.id")
+    List<DiscordMessage> findClaimableBacklog(@Param("afterId") Long afterId,
+                                              @Param("createdBefore") LocalDateTime createdBefore,
+                                              @Param("now") LocalDateTime now,
+                                              Pageable pageable);
     
     @Query("SELECT dm FROM DiscordMessage dm WHERE dm.guildId = :guildId AND dm.processed = true ORDER BY dm.timestamp DESC")
     List<DiscordMessage> findRecentProcessedMessages(@Param("guildId") String guildId);
@@ -25,10 +35,10 @@ public interface DiscordMessageRepository extends JpaRepository<DiscordMessage,
     Double getAverageSentimentSince(@Param("guildId") String guildId, @Param("since") LocalDateTime since);
     
     @Query("SELECT dm FROM DiscordMessage dm WHERE dm.guildId = :guildId AND dm.sentimentScore IS NOT NULL ORDER BY dm.sentimentScore ASC")
-    List<DiscordMessage> findMostNegativeMessages(@Param("guildId") String guildId);
+    List<DiscordMessage> findMostNegativeMessages(@Param("guildId") String guildId, Pageable pageable);
     
     @Query("SELECT dm FROM DiscordMessage dm WHERE dm.guildId = :guildId AND dm.sentimentScore IS NOT NULL ORDER BY dm.sentimentScore DESC")
-    List<DiscordMessage> findMostPositiveMessages(@Param("guildId") String guildId);
+    List<DiscordMessage> findMostPositiveMessages(@Param("guildId") String guildId, Pageable pageable);
     
     @Query("SELECT COUNT(dm) FROM DiscordMessage dm WHERE dm.userId = :userId AND dm.guildId = :guildId AND dm.processed = true")
     Long countByUserIdAndGuildId(@Param("userId") String userId, @Param("guildId") String guildId);
@@ -0,0 +1,19 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.dto.MinuteBucket;
+import com.tonediscord.tone.entity.DiscordMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DiscordMessageRepositoryCustom {
+    
+    // Multi-row insert that skips messages whose discord_message_id is already stored; returns the inserted ones
+    List<DiscordMessage> insertIgnoringDuplicates(List<DiscordMessage> messages);
+    
+    // Writes each message's score and marks it processed unless another path already did; returns the ones it marked
+    List<DiscordMessage> markProcessed(List<DiscordMessage> messages);
+    
+    // Per-guild, per-minute sentiment totals of processed messages since the given time
+    List<MinuteBucket> findMinuteBuckets(LocalDateTime since);
+}
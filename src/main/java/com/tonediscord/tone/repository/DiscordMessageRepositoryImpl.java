@@ -0,0 +1,188 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.dto.MinuteBucket;
+import com.tonediscord.tone.entity.DiscordMessage;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class DiscordMessageRepositoryImpl implements DiscordMessageRepositoryCustom {
+
+    private static final String INSERT_COLUMNS = "id, discord_message_id, channel_id, channel_name, guild_id, " +
+            "guild_name, user_id, username, display_name, message_content, timestamp, processed, created_at";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String H2_MERGE = """
+            MERGE INTO discord_messages t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR),
+                CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR),
+                CAST(? AS CHARACTER LARGE OBJECT), CAST(? AS TIMESTAMP), CAST(? AS BOOLEAN), CAST(? AS TIMESTAMP)))
+                AS s(%1$s)
+            ON t.discord_message_id = s.discord_message_id
+            WHEN NOT MATCHED THEN INSERT (%1$s)
+            VALUES (s.id, s.discord_message_id, s.channel_id, s.channel_name, s.guild_id, s.guild_name, s.user_id,
+                s.username, s.display_name, s.message_content, s.timestamp, s.processed, s.created_at)
+            """.formatted(INSERT_COLUMNS);
+
+    private static final String MARK_PROCESSED = """
+            UPDATE discord_messages
+            SET processed = true, sentiment_score = ?, sentiment_label = ?, claimed_until = NULL
+            WHERE id = ? AND processed = false
+            """;
+
+    private static final String MINUTE_BUCKETS = """
+            SELECT guild_id, DATE_TRUNC('MINUTE', timestamp), SUM(sentiment_score), COUNT(*)
+            FROM discord_messages
+            WHERE processed = true AND sentiment_score IS NOT NULL AND timestamp >= ?
+            GROUP BY guild_id, DATE_TRUNC('MINUTE', timestamp)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile SqlDialect dialect;
+
+    public DiscordMessageRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<DiscordMessage> insertIgnoringDuplicates(List<DiscordMessage> messages) {
+        // Duplicates inside the batch itself (e.g. gateway replays) are collapsed before touching the database
+        Map<String, DiscordMessage> unique = new LinkedHashMap<>();
+        messages.forEach(message -> unique.putIfAbsent(message.getDiscordMessageId(), message));
+        if (unique.isEmpty()) {
+            return List.of();
+        }
+
+        List<DiscordMessage> batch = new ArrayList<>(unique.values());
+        List<Long> ids = reserveIds(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).setId(ids.get(i));
+        }
+
+        List<DiscordMessage> inserted = new ArrayList<>(batch.size());
+        for (int start = 0; start < batch.size(); start += MAX_ROWS_PER_STATEMENT) {
+            List<DiscordMessage> chunk = batch.subList(start, Math.min(batch.size(), start + MAX_ROWS_PER_STATEMENT));
+            inserted.addAll(dialect() == SqlDialect.H2 ? mergeH2(chunk) : insertPostgres(chunk));
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<DiscordMessage> markProcessed(List<DiscordMessage> messages) {
+        if (messages.isEmpty()) {
+            return List.of();
+        }
+
+        // The live path and the backlog drainer can both score a message; only the one that flips the row counts it
+        int[] counts = jdbcTemplate.batchUpdate(MARK_PROCESSED, messages, messages.size(), (ps, message) -> {
+            ps.setDouble(1, message.getSentimentScore());
+            ps.setString(2, message.getSentimentLabel());
+            ps.setLong(3, message.getId());
+        })[0];
+
+        List<DiscordMessage> marked = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            if (counts[i] > 0) {
+                marked.add(messages.get(i));
+            }
+        }
+        return marked;
+    }
+
+    @Override
+    public List<MinuteBucket> findMinuteBuckets(LocalDateTime since) {
+        return jdbcTemplate.query(MINUTE_BUCKETS, (rs, rowNum) -> new MinuteBucket(
+                rs.getString(1), rs.getTimestamp(2).toLocalDateTime(), rs.getDouble(3), rs.getLong(4)),
+                Timestamp.valueOf(since));
+    }
+
+    private List<DiscordMessage> insertPostgres(List<DiscordMessage> chunk) {
+        String sql = "INSERT INTO discord_messages (" + INSERT_COLUMNS + ") VALUES " +
+                String.join(", ", Collections.nCopies(chunk.size(), ROW_PLACEHOLDERS)) +
+                " ON CONFLICT (discord_message_id) DO NOTHING RETURNING id";
+
+        List<Long> insertedIds = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            int index = 1;
+            for (DiscordMessage message : chunk) {
+                index = bindRow(ps, index, message);
+            }
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+
+        return keepInserted(chunk, insertedIds);
+    }
+
+    private List<DiscordMessage> mergeH2(List<DiscordMessage> chunk) {
+        int[] counts = jdbcTemplate.batchUpdate(H2_MERGE, chunk, chunk.size(),
+                (ps, message) -> bindRow(ps, 1, message))[0];
+
+        List<DiscordMessage> inserted = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (counts[i] > 0) {
+                inserted.add(chunk.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    private List<Long> reserveIds(int count) {
+        // Each sequence value is the top of a block of ID_ALLOCATION_SIZE ids, matching Hibernate's pooled optimizer
+        String sql = dialect() == SqlDialect.H2
+                ? "SELECT NEXT VALUE FOR discord_messages_seq FROM SYSTEM_RANGE(1, ?)"
+                : "SELECT nextval('discord_messages_seq') FROM generate_series(1, ?)";
+        int blockSize = DiscordMessage.ID_ALLOCATION_SIZE;
+
+        List<Long> ids = new ArrayList<>(count + blockSize);
+        while (ids.size() < count) {
+            int blocks = (count - ids.size() + blockSize - 1) / blockSize;
+            for (Long hi : jdbcTemplate.queryForList(sql, Long.class, blocks)) {
+                for (long id = Math.max(1, hi - blockSize + 1); id <= hi; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static int bindRow(PreparedStatement ps, int index, DiscordMessage message) throws SQLException {
+        ps.setLong(index++, message.getId());
+        ps.setString(index++, message.getDiscordMessageId());
+        ps.setString(index++, message.getChannelId());
+        ps.setString(index++, message.getChannelName());
+        ps.setString(index++, message.getGuildId());
+        ps.setString(index++, message.getGuildName());
+        ps.setString(index++, message.getUserId());
+        ps.setString(index++, message.getUsername());
+        ps.setString(index++, message.getDisplayName());
+        ps.setString(index++, message.getMessageContent());
+        ps.setTimestamp(index++, Timestamp.valueOf(message.getTimestamp()));
+        ps.setBoolean(index++, Boolean.TRUE.equals(message.getProcessed()));
+        ps.setTimestamp(index++, Timestamp.valueOf(message.getCreatedAt()));
+        return index;
+    }
+
+    private static List<DiscordMessage> keepInserted(List<DiscordMessage> chunk, Collection<Long> insertedIds) {
+        Set<Long> ids = new HashSet<>(insertedIds);
+        return chunk.stream().filter(message -> ids.contains(message.getId())).toList();
+    }
+
+    private SqlDialect dialect() {
+        if (dialect == null) {
+            dialect = SqlDialect.detect(jdbcTemplate);
+        }
+        return dialect;
+    }
+}
@@ -0,0 +1,9 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.entity.GuildSettings;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GuildSettingsRepository extends JpaRepository<GuildSettings, String> {
+}
@@ -0,0 +1,10 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.entity.SentimentCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SentimentCacheEntryRepository extends JpaRepository<SentimentCacheEntry, String>,
+        SentimentCacheEntryRepositoryCustom {
+}
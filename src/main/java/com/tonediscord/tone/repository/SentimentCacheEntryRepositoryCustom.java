@@ -0,0 +1,11 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.entity.SentimentCacheEntry;
+
+import java.util.List;
+
+public interface SentimentCacheEntryRepositoryCustom {
+    
+    // Swaps the persisted cache for the given entries with one delete and a batched upsert
+    void replaceSnapshot(List<SentimentCacheEntry> entries);
+}
@@ -0,0 +1,79 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.entity.SentimentCacheEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SentimentCacheEntryRepositoryImpl implements SentimentCacheEntryRepositoryCustom {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO sentiment_cache (cache_key, cleaned_text, sentiment_label, sentiment_score, updated_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (cache_key) DO UPDATE SET
+                cleaned_text = EXCLUDED.cleaned_text,
+                sentiment_label = EXCLUDED.sentiment_label,
+                sentiment_score = EXCLUDED.sentiment_score,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String H2_MERGE = """
+            MERGE INTO sentiment_cache t
+            USING (VALUES (CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR),
+                CAST(? AS DOUBLE PRECISION), CAST(? AS TIMESTAMP)))
+                AS s(cache_key, cleaned_text, sentiment_label, sentiment_score, updated_at)
+            ON t.cache_key = s.cache_key
+            WHEN MATCHED THEN UPDATE SET
+                cleaned_text = s.cleaned_text,
+                sentiment_label = s.sentiment_label,
+                sentiment_score = s.sentiment_score,
+                updated_at = s.updated_at
+            WHEN NOT MATCHED THEN INSERT (cache_key, cleaned_text, sentiment_label, sentiment_score, updated_at)
+            VALUES (s.cache_key, s.cleaned_text, s.sentiment_label, s.sentiment_score, s.updated_at)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile SqlDialect dialect;
+
+    public SentimentCacheEntryRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void replaceSnapshot(List<SentimentCacheEntry> entries) {
+        jdbcTemplate.update("DELETE FROM sentiment_cache");
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        // Hash collisions collapse to one row, and a consistent key order keeps overlapping snapshots
+        // from another instance from deadlocking; the upsert lets the later of the two win
+        Map<String, SentimentCacheEntry> byKey = new LinkedHashMap<>();
+        entries.forEach(entry -> byKey.putIfAbsent(entry.getCacheKey(), entry));
+        List<SentimentCacheEntry> ordered = byKey.values().stream()
+                .sorted(Comparator.comparing(SentimentCacheEntry::getCacheKey))
+                .toList();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(dialect() == SqlDialect.H2 ? H2_MERGE : POSTGRES_UPSERT, ordered, ordered.size(),
+                (ps, entry) -> {
+                    ps.setString(1, entry.getCacheKey());
+                    ps.setString(2, entry.getCleanedText());
+                    ps.setString(3, entry.getSentimentLabel());
+                    ps.setDouble(4, entry.getSentimentScore());
+                    ps.setTimestamp(5, now);
+                });
+    }
+
+    private SqlDialect dialect() {
+        if (dialect == null) {
+            dialect = SqlDialect.detect(jdbcTemplate);
+        }
+        return dialect;
+    }
+}
@@ -0,0 +1,24 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.entity.SentimentRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SentimentRollupRepository extends JpaRepository<SentimentRollup, Long>,
+        SentimentRollupRepositoryCustom {
+    
+    // Served entirely by the uk_sentiment_rollup_bucket index
+    @Query("SELECT r FROM SentimentRollup r WHERE r.granularity = :granularity AND r.scope = :scope " +
+           "AND r.guildId = :guildId AND r.scopeId = :scopeId AND r.bucketStart >= :since ORDER BY r.bucketStart")
+    List<SentimentRollup> findSeries(@Param("granularity") SentimentRollup.Granularity granularity,
+                                     @Param("scope") SentimentRollup.Scope scope,
+                                     @Param("guildId") String guildId,
+                                     @Param("scopeId") String scopeId,
+                                     @Param("since") LocalDateTime since);
+}
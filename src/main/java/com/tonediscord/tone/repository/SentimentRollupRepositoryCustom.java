@@ -0,0 +1,14 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.dto.RollupDelta;
+
+import java.util.List;
+
+public interface SentimentRollupRepositoryCustom {
+    
+    // Atomically creates or increments each rollup bucket
+    void applyDeltas(List<RollupDelta> deltas);
+    
+    // Recomputes every bucket from processed rows in discord_messages, returning the number of buckets written
+    int rebuildFromMessages();
+}
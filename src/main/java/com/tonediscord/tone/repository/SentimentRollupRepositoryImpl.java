@@ -0,0 +1,134 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.dto.RollupDelta;
+import com.tonediscord.tone.entity.SentimentRollup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+public class SentimentRollupRepositoryImpl implements SentimentRollupRepositoryCustom {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO sentiment_rollup (granularity, scope, guild_id, scope_id, bucket_start, message_count,
+                positive_messages, negative_messages, neutral_messages, sentiment_sum, last_updated)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (granularity, scope, guild_id, scope_id, bucket_start) DO UPDATE SET
+                message_count = sentiment_rollup.message_count + EXCLUDED.message_count,
+                positive_messages = sentiment_rollup.positive_messages + EXCLUDED.positive_messages,
+                negative_messages = sentiment_rollup.negative_messages + EXCLUDED.negative_messages,
+                neutral_messages = sentiment_rollup.neutral_messages + EXCLUDED.neutral_messages,
+                sentiment_sum = sentiment_rollup.sentiment_sum + EXCLUDED.sentiment_sum,
+                last_updated = EXCLUDED.last_updated
+            """;
+
+    private static final String H2_MERGE = """
+            MERGE INTO sentiment_rollup t
+            USING (VALUES (CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR),
+                CAST(? AS TIMESTAMP), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT),
+                CAST(? AS DOUBLE PRECISION), CAST(? AS TIMESTAMP)))
+                AS s(granularity, scope, guild_id, scope_id, bucket_start, message_count, positive_messages,
+                     negative_messages, neutral_messages, sentiment_sum, last_updated)
+            ON t.granularity = s.granularity AND t.scope = s.scope AND t.guild_id = s.guild_id
+                AND t.scope_id = s.scope_id AND t.bucket_start = s.bucket_start
+            WHEN MATCHED THEN UPDATE SET
+                message_count = t.message_count + s.message_count,
+                positive_messages = t.positive_messages + s.positive_messages,
+                negative_messages = t.negative_messages + s.negative_messages,
+                neutral_messages = t.neutral_messages + s.neutral_messages,
+                sentiment_sum = t.sentiment_sum + s.sentiment_sum,
+                last_updated = s.last_updated
+            WHEN NOT MATCHED THEN INSERT (granularity, scope, guild_id, scope_id, bucket_start, message_count,
+                positive_messages, negative_messages, neutral_messages, sentiment_sum, last_updated)
+            VALUES (s.granularity, s.scope, s.guild_id, s.scope_id, s.bucket_start, s.message_count,
+                s.positive_messages, s.negative_messages, s.neutral_messages, s.sentiment_sum, s.last_updated)
+            """;
+
+    // DATE_TRUNC takes the same unit names on PostgreSQL and H2
+    private static final String REBUILD_FROM_MESSAGES = """
+            INSERT INTO sentiment_rollup (granularity, scope, guild_id, scope_id, bucket_start, message_count,
+                positive_messages, negative_messages, neutral_messages, sentiment_sum, last_updated)
+            SELECT '%1$s', '%2$s', guild_id, %3$s, DATE_TRUNC('%1$s', timestamp), COUNT(*),
+                SUM(CASE WHEN sentiment_label = 'POSITIVE' THEN 1 ELSE 0 END),
+                SUM(CASE WHEN sentiment_label = 'NEGATIVE' THEN 1 ELSE 0 END),
+                SUM(CASE WHEN sentiment_label IN ('POSITIVE', 'NEGATIVE') THEN 0 ELSE 1 END),
+                SUM(sentiment_score), CURRENT_TIMESTAMP
+            FROM discord_messages
+            WHERE processed = true AND sentiment_score IS NOT NULL
+            GROUP BY guild_id, %3$s, DATE_TRUNC('%1$s', timestamp)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile SqlDialect dialect;
+
+    public SentimentRollupRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void applyDeltas(List<RollupDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // A consistent row order keeps concurrent batches from deadlocking on each other
+        List<RollupDelta> ordered = deltas.stream()
+                .sorted(Comparator.comparing(RollupDelta::granularity)
+                        .thenComparing(RollupDelta::scope)
+                        .thenComparing(RollupDelta::guildId)
+                        .thenComparing(RollupDelta::scopeId)
+                        .thenComparing(RollupDelta::bucketStart))
+                .toList();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(dialect() == SqlDialect.H2 ? H2_MERGE : POSTGRES_UPSERT, ordered, ordered.size(),
+                (ps, delta) -> {
+                    ps.setString(1, delta.granularity().name());
+                    ps.setString(2, delta.scope().name());
+                    ps.setString(3, delta.guildId());
+                    ps.setString(4, delta.scopeId());
+                    ps.setTimestamp(5, Timestamp.valueOf(delta.bucketStart()));
+                    ps.setLong(6, delta.messages());
+                    ps.setLong(7, delta.positiveMessages());
+                    ps.setLong(8, delta.negativeMessages());
+                    ps.setLong(9, delta.neutralMessages());
+                    ps.setDouble(10, delta.sentimentSum());
+                    ps.setTimestamp(11, now);
+                });
+    }
+
+    @Override
+    public int rebuildFromMessages() {
+        // Marks read the generation without a lock, so the recount waits for in-flight ones and holds new ones off
+        // until it commits. H2 has no table locks; it only backs single-instance dev runs.
+        if (dialect() == SqlDialect.POSTGRESQL) {
+            jdbcTemplate.execute("LOCK TABLE discord_messages IN SHARE MODE");
+        }
+        jdbcTemplate.update("DELETE FROM sentiment_rollup");
+        int written = 0;
+        for (SentimentRollup.Granularity granularity : SentimentRollup.Granularity.values()) {
+            for (SentimentRollup.Scope scope : SentimentRollup.Scope.values()) {
+                written += jdbcTemplate.update(REBUILD_FROM_MESSAGES.formatted(
+                        granularity.name(), scope.name(), scopeColumn(scope)));
+            }
+        }
+        return written;
+    }
+
+    private static String scopeColumn(SentimentRollup.Scope scope) {
+        return switch (scope) {
+            case GUILD -> "guild_id";
+            case CHANNEL -> "channel_id";
+            case USER -> "user_id";
+        };
+    }
+
+    private SqlDialect dialect() {
+        if (dialect == null) {
+            dialect = SqlDialect.detect(jdbcTemplate);
+        }
+        return dialect;
+    }
+}
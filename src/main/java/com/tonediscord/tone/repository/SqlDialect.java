@@ -0,0 +1,19 @@
+package com.tonediscord.tone.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// The native upsert/insert statements differ between the production (PostgreSQL) and dev (H2) databases
+public enum SqlDialect {
+    POSTGRESQL,
+    H2;
+
+    public static SqlDialect detect(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (product != null && product.toLowerCase().contains("h2")) {
+            return H2;
+        }
+        return POSTGRESQL;
+    }
+}
@@ -1,6 +1,8 @@
 package com.tonediscord.tone.repository;
 
+import com.tonediscord.tone.dto.GuildStats;
 import com.tonediscord.tone.entity.UserSentimentSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,21 +12,26 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserSentimentSummaryRepository extends JpaRepository<UserSentimentSummary, Long> {
+public interface UserSentimentSummaryRepository extends JpaRepository<UserSentimentSummary, Long>,
+        UserSentimentSummaryRepositoryCustom {
     
     Optional<UserSentimentSummary> findByUserIdAndGuildId(String userId, String guildId);
     
     List<UserSentimentSummary> findByGuildId(String guildId);
     
+    // Top-K reads: the Pageable becomes a LIMIT served from the (guild_id, ...) indexes
     @Query("SELECT uss FROM UserSentimentSummary uss WHERE uss.guildId = :guildId ORDER BY uss.averageSentiment ASC")
-    List<UserSentimentSummary> findMeanestUsers(@Param("guildId") String guildId);
+    List<UserSentimentSummary> findMeanestUsers(@Param("guildId") String guildId, Pageable pageable);
     
     @Query("SELECT uss FROM UserSentimentSummary uss WHERE uss.guildId = :guildId ORDER BY uss.averageSentiment DESC")
-    List<UserSentimentSummary> findMostPositiveUsers(@Param("guildId") String guildId);
+    List<UserSentimentSummary> findMostPositiveUsers(@Param("guildId") String guildId, Pageable pageable);
     
     @Query("SELECT uss FROM UserSentimentSummary uss WHERE uss.guildId = :guildId ORDER BY uss.totalMessages DESC")
-    List<UserSentimentSummary> findMostActiveUsers(@Param("guildId") String guildId);
+    List<UserSentimentSummary> findMostActiveUsers(@Param("guildId") String guildId, Pageable pageable);
     
-    @Query("SELECT AVG(uss.averageSentiment) FROM UserSentimentSummary uss WHERE uss.guildId = :guildId")
-    Double getGuildAverageSentiment(@Param("guildId") String guildId);
+    @Query("SELECT new com.tonediscord.tone.dto.GuildStats(COUNT(uss), COALESCE(SUM(uss.totalMessages), 0L), " +
+           "COALESCE(SUM(uss.positiveMessages), 0L), COALESCE(SUM(uss.negativeMessages), 0L), " +
+           "COALESCE(SUM(uss.neutralMessages), 0L), COALESCE(SUM(uss.sentimentSum), 0.0)) " +
+           "FROM UserSentimentSummary uss WHERE uss.guildId = :guildId")
+    GuildStats getGuildStats(@Param("guildId") String guildId);
 }
@@ -0,0 +1,14 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.dto.SummaryDelta;
+
+import java.util.List;
+
+public interface UserSentimentSummaryRepositoryCustom {
+    
+    // Atomically creates or increments each (user, guild) summary row
+    void applyDeltas(List<SummaryDelta> deltas);
+    
+    // Recomputes every summary from processed rows in discord_messages, returning the number of summaries written
+    int rebuildFromMessages();
+}
@@ -0,0 +1,134 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.dto.SummaryDelta;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+public class UserSentimentSummaryRepositoryImpl implements UserSentimentSummaryRepositoryCustom {
+
+    private static final String POSTGRES_UPSERT = """
+            INSERT INTO user_sentiment_summary (user_id, username, guild_id, total_messages, positive_messages,
+                negative_messages, neutral_messages, sentiment_sum, average_sentiment, most_positive_score,
+                most_negative_score, last_updated, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, guild_id) DO UPDATE SET
+                username = EXCLUDED.username,
+                total_messages = user_sentiment_summary.total_messages + EXCLUDED.total_messages,
+                positive_messages = user_sentiment_summary.positive_messages + EXCLUDED.positive_messages,
+                negative_messages = user_sentiment_summary.negative_messages + EXCLUDED.negative_messages,
+                neutral_messages = user_sentiment_summary.neutral_messages + EXCLUDED.neutral_messages,
+                sentiment_sum = user_sentiment_summary.sentiment_sum + EXCLUDED.sentiment_sum,
+                average_sentiment = (user_sentiment_summary.sentiment_sum + EXCLUDED.sentiment_sum)
+                    / (user_sentiment_summary.total_messages + EXCLUDED.total_messages),
+                most_positive_score = GREATEST(COALESCE(user_sentiment_summary.most_positive_score,
+                    EXCLUDED.most_positive_score), EXCLUDED.most_positive_score),
+                most_negative_score = LEAST(COALESCE(user_sentiment_summary.most_negative_score,
+                    EXCLUDED.most_negative_score), EXCLUDED.most_negative_score),
+                last_updated = EXCLUDED.last_updated
+            """;
+
+    private static final String H2_MERGE = """
+            MERGE INTO user_sentiment_summary t
+            USING (VALUES (CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS VARCHAR), CAST(? AS INTEGER),
+                CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS DOUBLE PRECISION),
+                CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION), CAST(? AS DOUBLE PRECISION),
+                CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP)))
+                AS s(user_id, username, guild_id, total_messages, positive_messages, negative_messages,
+                     neutral_messages, sentiment_sum, average_sentiment, most_positive_score,
+                     most_negative_score, last_updated, created_at)
+            ON t.user_id = s.user_id AND t.guild_id = s.guild_id
+            WHEN MATCHED THEN UPDATE SET
+                username = s.username,
+                total_messages = t.total_messages + s.total_messages,
+                positive_messages = t.positive_messages + s.positive_messages,
+                negative_messages = t.negative_messages + s.negative_messages,
+                neutral_messages = t.neutral_messages + s.neutral_messages,
+                sentiment_sum = t.sentiment_sum + s.sentiment_sum,
+                average_sentiment = (t.sentiment_sum + s.sentiment_sum) / (t.total_messages + s.total_messages),
+                most_positive_score = GREATEST(COALESCE(t.most_positive_score, s.most_positive_score),
+                    s.most_positive_score),
+                most_negative_score = LEAST(COALESCE(t.most_negative_score, s.most_negative_score),
+                    s.most_negative_score),
+                last_updated = s.last_updated
+            WHEN NOT MATCHED THEN INSERT (user_id, username, guild_id, total_messages, positive_messages,
+                negative_messages, neutral_messages, sentiment_sum, average_sentiment, most_positive_score,
+                most_negative_score, last_updated, created_at)
+            VALUES (s.user_id, s.username, s.guild_id, s.total_messages, s.positive_messages, s.negative_messages,
+                s.neutral_messages, s.sentiment_sum, s.average_sentiment, s.most_positive_score,
+                s.most_negative_score, s.last_updated, s.created_at)
+            """;
+
+    private static final String REBUILD_FROM_MESSAGES = """
+            INSERT INTO user_sentiment_summary (user_id, username, guild_id, total_messages, positive_messages,
+                negative_messages, neutral_messages, sentiment_sum, average_sentiment, most_positive_score,
+                most_negative_score, last_updated, created_at)
+            SELECT user_id, MAX(username), guild_id, COUNT(*),
+                SUM(CASE WHEN sentiment_label = 'POSITIVE' THEN 1 ELSE 0 END),
+                SUM(CASE WHEN sentiment_label = 'NEGATIVE' THEN 1 ELSE 0 END),
+                SUM(CASE WHEN sentiment_label IN ('POSITIVE', 'NEGATIVE') THEN 0 ELSE 1 END),
+                SUM(sentiment_score), SUM(sentiment_score) / COUNT(*), MAX(sentiment_score), MIN(sentiment_score),
+                CURRENT_TIMESTAMP, MIN(created_at)
+            FROM discord_messages
+            WHERE processed = true AND sentiment_score IS NOT NULL
+            GROUP BY user_id, guild_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile SqlDialect dialect;
+
+    public UserSentimentSummaryRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void applyDeltas(List<SummaryDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // A consistent row order keeps concurrent batches from deadlocking on each other
+        List<SummaryDelta> ordered = deltas.stream()
+                .sorted(Comparator.comparing(SummaryDelta::guildId).thenComparing(SummaryDelta::userId))
+                .toList();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(dialect() == SqlDialect.H2 ? H2_MERGE : POSTGRES_UPSERT, ordered, ordered.size(),
+                (ps, delta) -> {
+                    ps.setString(1, delta.userId());
+                    ps.setString(2, delta.username());
+                    ps.setString(3, delta.guildId());
+                    ps.setInt(4, delta.messages());
+                    ps.setInt(5, delta.positiveMessages());
+                    ps.setInt(6, delta.negativeMessages());
+                    ps.setInt(7, delta.neutralMessages());
+                    ps.setDouble(8, delta.sentimentSum());
+                    ps.setDouble(9, delta.sentimentSum() / delta.messages());
+                    ps.setDouble(10, delta.mostPositiveScore());
+                    ps.setDouble(11, delta.mostNegativeScore());
+                    ps.setTimestamp(12, now);
+                    ps.setTimestamp(13, now);
+                });
+    }
+
+    @Override
+    public int rebuildFromMessages() {
+        // Marks read the generation without a lock, so the recount waits for in-flight ones and holds new ones off
+        // until it commits. H2 has no table locks; it only backs single-instance dev runs.
+        if (dialect() == SqlDialect.POSTGRESQL) {
+            jdbcTemplate.execute("LOCK TABLE discord_messages IN SHARE MODE");
+        }
+        jdbcTemplate.update("DELETE FROM user_sentiment_summary");
+        return jdbcTemplate.update(REBUILD_FROM_MESSAGES);
+    }
+
+    private SqlDialect dialect() {
+        if (dialect == null) {
+            dialect = SqlDialect.detect(jdbcTemplate);
+        }
+        return dialect;
+    }
+}
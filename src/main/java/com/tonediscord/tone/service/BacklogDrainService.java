@@ -0,0 +1,94 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.entity.DiscordMessage;
+import com.tonediscord.tone.repository.DiscordMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class BacklogDrainService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacklogDrainService.class);
+
+    private final DiscordMessageRepository messageRepository;
+    private final MessageProcessingService messageProcessingService;
+    private final TransactionTemplate transactionTemplate;
+    private final InferenceGuard inferenceGuard;
+
+    @Value("${tone.backlog.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${tone.backlog.parallelism:16}")
+    private int parallelism;
+
+    @Value("${tone.backlog.max-chunks-per-run:50}")
+    private int maxChunksPerRun;
+
+    @Value("${tone.backlog.claim-lease:5m}")
+    private Duration claimLease;
+
+    // Live messages are scored by the ingestion pipeline; only pick up ones it has clearly left behind
+    @Value("${tone.backlog.min-age:2m}")
+    private Duration minAge;
+
+    public BacklogDrainService(DiscordMessageRepository messageRepository,
+                               MessageProcessingService messageProcessingService,
+                               TransactionTemplate transactionTemplate,
+                               InferenceGuard inferenceGuard) {
+        this.messageRepository = messageRepository;
+        this.messageProcessingService = messageProcessingService;
+        this.transactionTemplate = transactionTemplate;
+        this.inferenceGuard = inferenceGuard;
+    }
+
+    @Scheduled(fixedDelayString = "${tone.backlog.interval-ms:60000}")
+    public void drainBacklog() {
+        long afterId = 0L;
+        int drained = 0;
+
+        for (int i = 0; i < maxChunksPerRun; i++) {
+            // Claiming rows while the model is unreachable, or while live traffic needs the whole request budget,
+            // would only push their retry out by a lease
+            if (!inferenceGuard.isAvailable(InferenceGuard.Priority.BACKGROUND)) {
+                logger.debug("Sentiment model unavailable, pausing backlog drain");
+                break;
+            }
+
+            List<DiscordMessage> chunk = claimChunk(afterId);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            afterId = chunk.get(chunk.size() - 1).getId();
+            // Each chunk commits on its own; a failure leaves the claim to expire and be retried
+            messageProcessingService.processMessages(chunk, parallelism, InferenceGuard.Priority.BACKGROUND).join();
+            drained += chunk.size();
+        }
+
+        if (drained > 0) {
+            logger.info("Drained {} backlog messages", drained);
+        }
+    }
+
+    private List<DiscordMessage> claimChunk(long afterId) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<DiscordMessage> chunk = messageRepository.findClaimableBacklog(
+                    afterId, now.minus(minAge), now, PageRequest.of(0, chunkSize));
+
+            // The lease is what keeps other instances off these rows once the row locks are released
+            LocalDateTime claimedUntil = now.plus(claimLease);
+            chunk.forEach(message -> message.setClaimedUntil(claimedUntil));
+            return chunk;
+        });
+    }
+}
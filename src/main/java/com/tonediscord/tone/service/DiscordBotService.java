@@ -2,16 +2,26 @@ package com.tonediscord.tone.service;
 
 import com.tonediscord.tone.dto.SentimentResponse;
 import com.tonediscord.tone.entity.DiscordMessage;
-import com.tonediscord.tone.repository.DiscordMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.events.GenericEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,28 +31,58 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.concurrent.CompletableFuture;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class DiscordBotService extends ListenerAdapter {
     
     private static final Logger logger = LoggerFactory.getLogger(DiscordBotService.class);
+    private static final Set<String> GUILD_COMMANDS =
+            Set.of("stats", "leaderboard", "meanest", "vibe", "mood", "alerts", "backfill");
     
-    private final DiscordMessageRepository messageRepository;
     private final SentimentAnalysisService sentimentService;
     private final MessageProcessingService messageProcessingService;
+    private final MessageIngestionPipeline ingestionPipeline;
+    private final GuildSettingsService guildSettingsService;
+    private final HistoryBackfillService backfillService;
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, Counter> shardEventCounters = new ConcurrentHashMap<>();
+    private final Set<Integer> pingGaugeShards = ConcurrentHashMap.newKeySet();
     
     @Value("${discord.bot.token}")
     private String botToken;
     
-    private JDA jda;
+    // -1 lets Discord recommend a shard count
+    @Value("${discord.bot.shards.total:-1}")
+    private int shardsTotal;
+    
+    // The range of shard ids this instance runs; -1 runs all of them
+    @Value("${discord.bot.shards.first:-1}")
+    private int firstShard;
+    
+    @Value("${discord.bot.shards.last:-1}")
+    private int lastShard;
+    
+    @Value("${discord.bot.lean-cache:true}")
+    private boolean leanCache;
+    
+    private ShardManager shardManager;
 
-    public DiscordBotService(DiscordMessageRepository messageRepository, 
-                           SentimentAnalysisService sentimentService,
-                           MessageProcessingService messageProcessingService) {
-        this.messageRepository = messageRepository;
+    public DiscordBotService(SentimentAnalysisService sentimentService,
+                           MessageProcessingService messageProcessingService,
+                           MessageIngestionPipeline ingestionPipeline,
+                           GuildSettingsService guildSettingsService,
+                           HistoryBackfillService backfillService,
+                           MeterRegistry meterRegistry) {
         this.sentimentService = sentimentService;
         this.messageProcessingService = messageProcessingService;
+        this.ingestionPipeline = ingestionPipeline;
+        this.guildSettingsService = guildSettingsService;
+        this.backfillService = backfillService;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostConstruct
@@ -53,31 +93,77 @@ public class DiscordBotService extends ListenerAdapter {
         }
 
         try {
-            this.jda = JDABuilder.createDefault(botToken)
+            // Each shard is its own gateway connection and event thread, covering guilds by (guild_id >> 22) % total
+            DefaultShardManagerBuilder builder = DefaultShardManagerBuilder.createDefault(botToken)
                     .enableIntents(GatewayIntent.GUILD_MESSAGES, GatewayIntent.MESSAGE_CONTENT)
                     .addEventListeners(this)
                     .setActivity(Activity.watching("the vibes 📊"))
-                    .build();
+                    .setShardsTotal(shardsTotal);
+            if (firstShard >= 0 && lastShard >= firstShard) {
+                if (shardsTotal <= 0) {
+                    throw new IllegalStateException("discord.bot.shards.total must be set to run a shard range");
+                }
+                builder.setShards(firstShard, lastShard);
+            }
+            if (leanCache) {
+                applyLeanCache(builder);
+            }
+            this.shardManager = builder.build();
             
-            logger.info("Discord bot is starting up...");
+            logger.info("Discord bot is starting up with {} shards (of {} total)...",
+                    shardManager.getShardCache().size(), shardManager.getShardsTotal());
         } catch (Exception e) {
             logger.error("Failed to initialize Discord bot", e);
         }
     }
 
+    static DefaultShardManagerBuilder applyLeanCache(DefaultShardManagerBuilder builder) {
+        // Messages carry their author, member nickname, channel and guild, which is all that gets stored.
+        // Only guilds, channels, roles and the bot's own member stay cached; everything else is dropped.
+        return builder.disableIntents(GatewayIntent.GUILD_VOICE_STATES, GatewayIntent.GUILD_EMOJIS_AND_STICKERS,
+                        GatewayIntent.SCHEDULED_EVENTS, GatewayIntent.GUILD_INVITES, GatewayIntent.GUILD_WEBHOOKS,
+                        GatewayIntent.GUILD_MESSAGE_REACTIONS, GatewayIntent.GUILD_MESSAGE_TYPING,
+                        GatewayIntent.DIRECT_MESSAGE_REACTIONS, GatewayIntent.DIRECT_MESSAGE_TYPING)
+                .disableCache(EnumSet.allOf(CacheFlag.class))
+                .setMemberCachePolicy(MemberCachePolicy.NONE)
+                .setChunkingFilter(ChunkingFilter.NONE);
+    }
+
     @PreDestroy
     public void shutdown() {
-        if (jda != null) {
-            jda.shutdown();
+        if (shardManager != null) {
+            shardManager.shutdown();
             logger.info("Discord bot shut down");
         }
     }
 
     @Override
     public void onReady(ReadyEvent event) {
-        logger.info("Discord bot '{}' is ready! Connected to {} guilds", 
-                   event.getJDA().getSelfUser().getName(),
-                   event.getJDA().getGuilds().size());
+        JDA shard = event.getJDA();
+        logger.info("Discord bot '{}' shard {} is ready! Connected to {} guilds", 
+                   shard.getSelfUser().getName(),
+                   shard.getShardInfo().getShardString(),
+                   shard.getGuilds().size());
+        // A restarted shard is a new JDA instance, so the gauge looks the shard up by id instead of holding one
+        int shardId = shard.getShardInfo().getShardId();
+        if (pingGaugeShards.add(shardId)) {
+            Gauge.builder("tone.discord.gateway.ping", this, service -> service.gatewayPing(shardId))
+                    .tag("shard", String.valueOf(shardId))
+                    .register(meterRegistry);
+        }
+    }
+
+    private double gatewayPing(int shardId) {
+        JDA shard = shardManager != null ? shardManager.getShardById(shardId) : null;
+        return shard != null ? shard.getGatewayPing() : Double.NaN;
+    }
+
+    @Override
+    public void onGenericEvent(GenericEvent event) {
+        // Event rate per shard shows when a shard is hot or stalled
+        shardEventCounters.computeIfAbsent(event.getJDA().getShardInfo().getShardId(),
+                shardId -> meterRegistry.counter("tone.discord.events", "shard", String.valueOf(shardId)))
+                .increment();
     }
 
     @Override
@@ -90,60 +176,46 @@ public class DiscordBotService extends ListenerAdapter {
         Message message = event.getMessage();
         String content = message.getContentRaw();
         
-        // Skip empty messages or commands
-        if (content.trim().isEmpty() || content.startsWith("!")) {
-            return;
-        }
-
         // Handle tone commands
         if (content.toLowerCase().startsWith("!tone")) {
             handleToneCommand(event, content);
             return;
         }
 
-        // Store and process regular messages
-        CompletableFuture.runAsync(() -> {
-            try {
-                storeMessage(event);
-            } catch (Exception e) {
-                logger.error("Error processing message from {}: {}", 
-                           event.getAuthor().getName(), e.getMessage());
-            }
-        });
-    }
-
-    private void storeMessage(MessageReceivedEvent event) {
-        Message message = event.getMessage();
-        
-        // Check if message already exists
-        if (messageRepository.existsByDiscordMessageId(message.getId())) {
+        // Skip direct messages, empty messages and other bots' commands
+        if (!event.isFromGuild() || content.trim().isEmpty() || content.startsWith("!")) {
             return;
         }
 
-        // Create and save message entity
-        DiscordMessage discordMessage = new DiscordMessage(
+        // Hand off to the ingestion pipeline; the gateway thread never waits on the database or model
+        ingestionPipeline.submit(toDiscordMessage(message));
+    }
+
+    // The same filter as live messages, for history imported by the backfill
+    static boolean isAnalyzable(Message message) {
+        String content = message.getContentRaw();
+        return !message.getAuthor().isBot() && !content.trim().isEmpty() && !content.startsWith("!");
+    }
+
+    static DiscordMessage toDiscordMessage(Message message) {
+        User author = message.getAuthor();
+        
+        return new DiscordMessage(
                 message.getId(),
                 message.getChannel().getId(),
                 message.getChannel().getName(),
-                event.getGuild().getId(),
-                event.getGuild().getName(),
-                event.getAuthor().getId(),
-                event.getAuthor().getName(),
-                event.getMember() != null ? event.getMember().getEffectiveName() : event.getAuthor().getName(),
+                message.getGuild().getId(),
+                message.getGuild().getName(),
+                author.getId(),
+                author.getName(),
+                message.getMember() != null ? message.getMember().getEffectiveName() : author.getName(),
                 message.getContentRaw(),
                 LocalDateTime.ofInstant(message.getTimeCreated().toInstant(), ZoneOffset.UTC)
         );
-
-        discordMessage = messageRepository.save(discordMessage);
-        logger.debug("Stored message from {}: {}", event.getAuthor().getName(), 
-                    message.getContentRaw().substring(0, Math.min(50, message.getContentRaw().length())));
-
-        // Process sentiment analysis
-        messageProcessingService.processMessage(discordMessage);
     }
 
     private void handleToneCommand(MessageReceivedEvent event, String content) {
-        String[] parts = content.split("\\s+", 2);
+        String[] parts = content.split("\\s+", 3);
         
         if (parts.length < 2) {
             sendHelpMessage(event);
@@ -152,6 +224,12 @@ public class DiscordBotService extends ListenerAdapter {
 
         String command = parts[1].toLowerCase();
         
+        // DMs have no guild to report on or configure
+        if (!event.isFromGuild() && GUILD_COMMANDS.contains(command)) {
+            event.getChannel().sendMessage("That command only works in a server. Here you can use `!tone analyze` or `!tone help`.").queue();
+            return;
+        }
+        
         switch (command) {
             case "help":
                 sendHelpMessage(event);
@@ -167,6 +245,12 @@ public class DiscordBotService extends ListenerAdapter {
             case "mood":
                 messageProcessingService.sendVibeCheckMessage(event);
                 break;
+            case "alerts":
+                configureAlerts(event, parts.length > 2 ? parts[2].trim().toLowerCase() : "");
+                break;
+            case "backfill":
+                handleBackfill(event, parts.length > 2 ? parts[2].trim().toLowerCase() : "");
+                break;
             case "analyze":
                 if (parts.length > 2) {
                     analyzeText(event, parts[2]);
@@ -179,8 +263,74 @@ public class DiscordBotService extends ListenerAdapter {
         }
     }
 
+    private void configureAlerts(MessageReceivedEvent event, String option) {
+        if (!canManageServer(event, "change vibe alerts")) {
+            return;
+        }
+
+        String guildId = event.getGuild().getId();
+        switch (option) {
+            case "here" -> {
+                guildSettingsService.setAlertChannel(guildId, event.getChannel().getId());
+                event.getChannel().sendMessage("🔔 Vibe shift alerts will be posted in this channel.").queue();
+            }
+            case "off" -> {
+                guildSettingsService.disableAlerts(guildId);
+                event.getChannel().sendMessage("🔕 Vibe shift alerts are off. Use `!tone alerts here` to turn them back on.").queue();
+            }
+            default -> event.getChannel().sendMessage("Usage: `!tone alerts here` or `!tone alerts off`").queue();
+        }
+    }
+
+    private void handleBackfill(MessageReceivedEvent event, String option) {
+        if (!canManageServer(event, "import message history")) {
+            return;
+        }
+
+        if (option.equals("status")) {
+            HistoryBackfillService.BackfillProgress progress = backfillService.getProgress(event.getGuild().getId());
+            event.getChannel().sendMessage(progress == null
+                    ? "No history import has run since the bot started. Use `!tone backfill` to start one."
+                    : describeBackfill(progress)).queue();
+            return;
+        }
+
+        HistoryBackfillService.BackfillProgress progress = backfillService.startBackfill(event.getGuild());
+        event.getChannel().sendMessage(String.format(
+                "📥 Importing message history from %d channels. Use `!tone backfill status` to check progress.",
+                progress.getChannelsTotal())).queue();
+    }
+
+    private String describeBackfill(HistoryBackfillService.BackfillProgress progress) {
+        return String.format("""
+                📥 **History Import** %s
+                
+                📁 **Channels:** %d of %d done%s
+                💬 **Messages:** %,d read, %,d new
+                ⚡ **Speed:** %.1f messages/sec
+                """,
+                progress.isFinished() ? "(finished)" : "(running)",
+                progress.getChannelsDone(), progress.getChannelsTotal(),
+                progress.getChannelsFailed() > 0 ? String.format(", %d stopped early", progress.getChannelsFailed()) : "",
+                progress.getMessagesFetched(), progress.getMessagesStored(),
+                progress.getMessagesPerSecond());
+    }
+
+    private boolean canManageServer(MessageReceivedEvent event, String action) {
+        if (event.getMember() == null || !event.getMember().hasPermission(Permission.MANAGE_SERVER)) {
+            event.getChannel().sendMessage("❌ You need the Manage Server permission to " + action + ".").queue();
+            return false;
+        }
+        return true;
+    }
+
     private void analyzeText(MessageReceivedEvent event, String text) {
-        SentimentResponse sentiment = sentimentService.analyzeSentiment(text);
+        sentimentService.analyzeSentimentAsync(text)
+                .subscribe(sentiment -> sendAnalysisResult(event, text, sentiment),
+                        error -> event.getChannel().sendMessage("❌ Sorry, couldn't analyze that right now!").queue());
+    }
+
+    private void sendAnalysisResult(MessageReceivedEvent event, String text, SentimentResponse sentiment) {
         String emoji = sentimentService.getSentimentEmoji(sentiment.getLabel(), sentiment.getScore());
         
         String response = String.format("%s **Sentiment Analysis** %s\n" +
@@ -214,6 +364,8 @@ public class DiscordBotService extends ListenerAdapter {
                 `!tone leaderboard` - Show the meanest/nicest members
                 `!tone vibe` - Check the current server vibe
                 `!tone analyze <text>` - Analyze sentiment of specific text
+                `!tone alerts here|off` - Choose where vibe shift alerts go, or turn them off
+                `!tone backfill [status]` - Import this server's message history, or check on the import
                 
                 I automatically analyze all messages for sentiment and track the vibes! 📊
                 """;
@@ -222,11 +374,17 @@ public class DiscordBotService extends ListenerAdapter {
     }
 
     public void sendVibeAlert(String guildId, String channelId, String alertMessage) {
-        if (jda == null) return;
+        if (shardManager == null) return;
         
         try {
-            TextChannel channel = jda.getTextChannelById(channelId);
-            if (channel != null) {
+            // Lookups span every shard this instance runs; guilds owned by other instances resolve to null
+            TextChannel channel = channelId != null ? shardManager.getTextChannelById(channelId) : null;
+            if (channel == null) {
+                // No configured channel (or it was deleted): fall back to the guild's system channel
+                Guild guild = shardManager.getGuildById(guildId);
+                channel = guild != null ? guild.getSystemChannel() : null;
+            }
+            if (channel != null && channel.canTalk()) {
                 channel.sendMessage(alertMessage).queue();
             }
         } catch (Exception e) {
@@ -234,7 +392,13 @@ public class DiscordBotService extends ListenerAdapter {
         }
     }
 
+    public Guild getGuild(String guildId) {
+        return shardManager != null ? shardManager.getGuildById(guildId) : null;
+    }
+
+    // True while any of this instance's shards is connected; alerts for guilds on a shard that is down are skipped
     public boolean isConnected() {
-        return jda != null && jda.getStatus() == JDA.Status.CONNECTED;
+        return shardManager != null && shardManager.getShardCache().stream()
+                .anyMatch(shard -> shard.getStatus() == JDA.Status.CONNECTED);
     }
 }
@@ -0,0 +1,134 @@
+package com.tonediscord.tone.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Short-lived per-guild cache for the dashboard's read endpoints. Each resource group has its own per-guild version,
+// bumped only when the table behind it is written, so a cached response is served until its own data changes.
+@Component
+public class GuildResponseCache {
+
+    public enum Group {
+        SUMMARY, // stats and leaderboards, bumped when the summary aggregator flushes
+        ROLLUP,  // sentiment history, bumped when the rollup aggregator flushes
+        WINDOW   // recent vibe; its in-memory window moves with every message, so only the TTL bounds it
+    }
+
+    private final Map<VersionKey, AtomicLong> versions = new ConcurrentHashMap<>();
+    // Bumped by a rebuild; added to the per-guild version so one increment stales every guild in the group
+    private final Map<Group, AtomicLong> epochs = new EnumMap<>(Group.class);
+    private final ObjectWriter etagWriter;
+    private final Cache<CacheKey, CachedResponse<?>> cache;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter staleCounter;
+    private final Timer ageTimer;
+
+    @Value("${tone.api.cache.enabled:true}")
+    private boolean enabled;
+
+    public GuildResponseCache(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                              @Value("${tone.api.cache.max-size:10000}") long maxSize,
+                              @Value("${tone.api.cache.ttl:5s}") Duration ttl) {
+        for (Group group : Group.values()) {
+            epochs.put(group, new AtomicLong());
+        }
+        // Map bodies are HashMaps; sorted keys keep the same content hashing to the same ETag
+        this.etagWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        // The TTL bounds staleness for data that changes without a write, like the sliding recent-vibe window
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.hitCounter = meterRegistry.counter("tone.api.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("tone.api.cache", "result", "miss");
+        this.staleCounter = meterRegistry.counter("tone.api.cache", "result", "stale");
+        this.ageTimer = Timer.builder("tone.api.cache.age").register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> CachedResponse<T> get(String guildId, Group group, String resource, Supplier<T> loader) {
+        long version = currentVersion(guildId, group);
+        if (!enabled) {
+            return load(loader, version);
+        }
+
+        CacheKey key = new CacheKey(guildId, group, resource);
+        CachedResponse<T> cached = (CachedResponse<T>) cache.getIfPresent(key);
+        if (cached != null && cached.version() == version) {
+            hitCounter.increment();
+            ageTimer.record(System.nanoTime() - cached.loadedAt(), TimeUnit.NANOSECONDS);
+            return cached;
+        }
+        (cached != null ? staleCounter : missCounter).increment();
+
+        // Stored under the version read before loading, so a write that lands mid-load makes the entry stale at once
+        CachedResponse<T> loaded = load(loader, version);
+        cache.put(key, loaded);
+        return loaded;
+    }
+
+    public void invalidate(Group group, String guildId) {
+        versions.computeIfAbsent(new VersionKey(guildId, group), key -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void invalidate(Group group, Collection<String> guildIds) {
+        guildIds.forEach(guildId -> invalidate(group, guildId));
+    }
+
+    public void invalidateAll(Group group) {
+        epochs.get(group).incrementAndGet();
+    }
+
+    private long currentVersion(String guildId, Group group) {
+        // Both parts only ever grow, so a bump to either one changes the sum
+        AtomicLong version = versions.get(new VersionKey(guildId, group));
+        return epochs.get(group).get() + (version != null ? version.get() : 0);
+    }
+
+    private <T> CachedResponse<T> load(Supplier<T> loader, long version) {
+        T body = loader.get();
+        return new CachedResponse<>(body, etag(body), version, System.nanoTime());
+    }
+
+    private String etag(Object body) {
+        // Strong ETag over the serialized body, so a reload that produces the same data still answers 304,
+        // and one that differs never does, even across restarts
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(etagWriter.writeValueAsBytes(body));
+            return "\"" + HexFormat.of().formatHex(digest) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Could not serialize response for its ETag", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VersionKey(String guildId, Group group) {}
+
+    private record CacheKey(String guildId, Group group, String resource) {}
+
+    public record CachedResponse<T>(T body, String etag, long version, long loadedAt) {}
+}
@@ -0,0 +1,42 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.entity.GuildSettings;
+import com.tonediscord.tone.repository.GuildSettingsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+@Service
+public class GuildSettingsService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GuildSettingsService.class);
+    
+    private final GuildSettingsRepository settingsRepository;
+
+    public GuildSettingsService(GuildSettingsRepository settingsRepository) {
+        this.settingsRepository = settingsRepository;
+    }
+
+    public GuildSettings getSettings(String guildId) {
+        return settingsRepository.findById(guildId).orElseGet(() -> new GuildSettings(guildId));
+    }
+
+    public void setAlertChannel(String guildId, String channelId) {
+        GuildSettings settings = getSettings(guildId);
+        settings.setAlertChannelId(channelId);
+        settings.setAlertsEnabled(true);
+        settings.setUpdatedAt(LocalDateTime.now());
+        settingsRepository.save(settings);
+        logger.info("Vibe alerts for guild {} now go to channel {}", guildId, channelId);
+    }
+
+    public void disableAlerts(String guildId) {
+        GuildSettings settings = getSettings(guildId);
+        settings.setAlertsEnabled(false);
+        settings.setUpdatedAt(LocalDateTime.now());
+        settingsRepository.save(settings);
+        logger.info("Vibe alerts disabled for guild {}", guildId);
+    }
+}
@@ -0,0 +1,252 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.entity.BackfillCheckpoint;
+import com.tonediscord.tone.entity.DiscordMessage;
+import com.tonediscord.tone.repository.BackfillCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Imports channel history so a guild does not start from zero when the bot joins, and fills gaps left by downtime
+@Service
+public class HistoryBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryBackfillService.class);
+    private static final int MAX_PAGE_SIZE = 100; // Discord's limit per history request
+
+    private final MessageProcessingService messageProcessingService;
+    private final BackfillCheckpointRepository checkpointRepository;
+    private final Map<String, BackfillProgress> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger activeChannels = new AtomicInteger();
+    private final Counter fetchedCounter;
+    private final Counter storedCounter;
+
+    @Value("${tone.backfill.parallel-channels:4}")
+    private int parallelChannels;
+
+    @Value("${tone.backfill.page-size:100}")
+    private int pageSize;
+
+    @Value("${tone.backfill.max-age:30d}")
+    private Duration maxAge;
+
+    @Value("${tone.backfill.score-parallelism:16}")
+    private int scoreParallelism;
+
+    private ExecutorService executor;
+
+    public HistoryBackfillService(MessageProcessingService messageProcessingService,
+                                  BackfillCheckpointRepository checkpointRepository,
+                                  MeterRegistry meterRegistry) {
+        this.messageProcessingService = messageProcessingService;
+        this.checkpointRepository = checkpointRepository;
+        this.fetchedCounter = meterRegistry.counter("tone.backfill.messages", "outcome", "fetched");
+        this.storedCounter = meterRegistry.counter("tone.backfill.messages", "outcome", "stored");
+        Gauge.builder("tone.backfill.active.channels", activeChannels, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newFixedThreadPool(parallelChannels, new CustomizableThreadFactory("backfill-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted channels keep their cursor and pick up from there on the next run
+        executor.shutdownNow();
+    }
+
+    public BackfillProgress startBackfill(Guild guild) {
+        return jobs.compute(guild.getId(), (guildId, running) -> {
+            if (running != null && !running.isFinished()) {
+                return running;
+            }
+
+            List<TextChannel> channels = guild.getTextChannels().stream()
+                    .filter(channel -> guild.getSelfMember()
+                            .hasPermission(channel, Permission.VIEW_CHANNEL, Permission.MESSAGE_HISTORY))
+                    .toList();
+            BackfillProgress progress = new BackfillProgress(guildId, channels.size());
+            logger.info("Starting history backfill of {} channels in guild {}", channels.size(), guild.getName());
+            if (channels.isEmpty()) {
+                progress.markFinished();
+            }
+            channels.forEach(channel -> executor.execute(() -> backfillChannel(channel, progress)));
+            return progress;
+        });
+    }
+
+    public BackfillProgress getProgress(String guildId) {
+        return jobs.get(guildId);
+    }
+
+    private void backfillChannel(TextChannel channel, BackfillProgress progress) {
+        activeChannels.incrementAndGet();
+        try {
+            BackfillCheckpoint checkpoint = checkpointRepository.findById(channel.getId())
+                    .orElseGet(() -> new BackfillCheckpoint(channel.getId(), channel.getGuild().getId()));
+            Instant cutoff = Instant.now().minus(maxAge);
+            int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("shutting down");
+                }
+
+                // complete() waits in JDA's per-route rate-limit bucket, so parallel channels never exceed Discord's limits
+                Long cursor = checkpoint.getRunCursorMessageId();
+                List<Message> page = cursor == null
+                        ? channel.getHistory().retrievePast(limit).complete()
+                        : channel.getHistoryBefore(cursor, limit).complete().getRetrievedHistory();
+                if (cursor == null && !page.isEmpty()) {
+                    checkpoint.setRunTopMessageId(page.get(0).getIdLong());
+                }
+
+                // Pages come newest first; stop at what an earlier run already covered or at the age limit
+                boolean reachedEnd = page.size() < limit;
+                List<DiscordMessage> fresh = new ArrayList<>(page.size());
+                for (Message message : page) {
+                    if (isCovered(message, checkpoint) || message.getTimeCreated().toInstant().isBefore(cutoff)) {
+                        reachedEnd = true;
+                        break;
+                    }
+                    if (DiscordBotService.isAnalyzable(message)) {
+                        fresh.add(DiscordBotService.toDiscordMessage(message));
+                    }
+                }
+                progress.messagesFetched.addAndGet(page.size());
+                fetchedCounter.increment(page.size());
+
+                int stored = storeAndScore(fresh);
+                progress.messagesStored.addAndGet(stored);
+                storedCounter.increment(stored);
+                checkpoint.setMessagesImported(checkpoint.getMessagesImported() + stored);
+
+                if (reachedEnd) {
+                    finish(checkpoint);
+                    break;
+                }
+                checkpoint.setRunCursorMessageId(page.get(page.size() - 1).getIdLong());
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                checkpointRepository.save(checkpoint);
+            }
+
+            progress.channelsDone.incrementAndGet();
+            logger.info("Backfilled #{} in guild {} ({} messages/sec across the guild so far)",
+                    channel.getName(), progress.getGuildId(), String.format("%.1f", progress.getMessagesPerSecond()));
+        } catch (Exception e) {
+            progress.channelsFailed.incrementAndGet();
+            logger.warn("Backfill of channel #{} stopped, it will resume from its checkpoint: {}",
+                    channel.getName(), e.getMessage());
+        } finally {
+            activeChannels.decrementAndGet();
+            if (progress.markFinished()) {
+                logger.info("History backfill of guild {} finished: {} messages fetched, {} new, {} channels failed",
+                        progress.getGuildId(), progress.getMessagesFetched(), progress.getMessagesStored(),
+                        progress.getChannelsFailed());
+            }
+        }
+    }
+
+    private int storeAndScore(List<DiscordMessage> messages) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        // Same batched, background-priority path as the backlog; anything the model cannot score now stays for the
+        // backlog drainer
+        List<DiscordMessage> stored = messageProcessingService.storeMessages(messages);
+        if (!stored.isEmpty()) {
+            messageProcessingService.processMessages(stored, scoreParallelism, InferenceGuard.Priority.BACKGROUND)
+                    .join();
+        }
+        return stored.size();
+    }
+
+    private void finish(BackfillCheckpoint checkpoint) {
+        if (checkpoint.getRunTopMessageId() != null) {
+            Long highWater = checkpoint.getHighWaterMessageId();
+            checkpoint.setHighWaterMessageId(highWater == null
+                    ? checkpoint.getRunTopMessageId()
+                    : Math.max(highWater, checkpoint.getRunTopMessageId()));
+        }
+        checkpoint.setRunTopMessageId(null);
+        checkpoint.setRunCursorMessageId(null);
+        checkpoint.setLastCompletedAt(LocalDateTime.now());
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    private static boolean isCovered(Message message, BackfillCheckpoint checkpoint) {
+        // Snowflake ids grow with time, so anything at or below the high-water mark was imported before
+        return checkpoint.getHighWaterMessageId() != null && message.getIdLong() <= checkpoint.getHighWaterMessageId();
+    }
+
+    public static class BackfillProgress {
+
+        private final String guildId;
+        private final int channelsTotal;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger channelsDone = new AtomicInteger();
+        private final AtomicInteger channelsFailed = new AtomicInteger();
+        private final AtomicLong messagesFetched = new AtomicLong();
+        private final AtomicLong messagesStored = new AtomicLong();
+        private volatile Instant finishedAt;
+
+        BackfillProgress(String guildId, int channelsTotal) {
+            this.guildId = guildId;
+            this.channelsTotal = channelsTotal;
+        }
+
+        public String getGuildId() { return guildId; }
+        public int getChannelsTotal() { return channelsTotal; }
+        public int getChannelsDone() { return channelsDone.get(); }
+        public int getChannelsFailed() { return channelsFailed.get(); }
+        public long getMessagesFetched() { return messagesFetched.get(); }
+        public long getMessagesStored() { return messagesStored.get(); }
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+
+        public boolean isFinished() {
+            return channelsDone.get() + channelsFailed.get() >= channelsTotal;
+        }
+
+        // True only for the caller that observed the last channel finishing
+        synchronized boolean markFinished() {
+            if (finishedAt != null || !isFinished()) {
+                return false;
+            }
+            finishedAt = Instant.now();
+            return true;
+        }
+
+        public double getMessagesPerSecond() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(1, Duration.between(startedAt, end).toMillis()) / 1000.0;
+            return messagesFetched.get() / seconds;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+// Remote scoring through the Hugging Face inference API
+@Component
+@ConditionalOnProperty(name = "tone.analysis.engine", havingValue = "huggingface", matchIfMissing = true)
+public class HuggingFaceSentimentEngine implements SentimentEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(HuggingFaceSentimentEngine.class);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(500);
+
+    private final WebClient webClient;
+
+    @Value("${ai.service.huggingface.api-url}")
+    private String huggingFaceApiUrl;
+
+    @Value("${ai.service.huggingface.api-key}")
+    private String huggingFaceApiKey;
+
+    public HuggingFaceSentimentEngine(WebClient.Builder webClientBuilder) {
+        this.webClient = webClientBuilder
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
+                .build();
+    }
+
+    @Override
+    public Mono<List<SentimentResponse>> analyzeBatch(List<String> texts) {
+        // Prepare the request payload
+        Map<String, Object> requestBody = Map.of("inputs", texts);
+        logger.debug("Sending batch of {} to Hugging Face API: {}", texts.size(), huggingFaceApiUrl);
+
+        // Call Hugging Face API with retry logic; one result list comes back per input
+        return webClient.post()
+                .uri(huggingFaceApiUrl)
+                .header("Authorization", "Bearer " + huggingFaceApiKey)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<List<Map<String, Object>>>>() {})
+                .timeout(REQUEST_TIMEOUT)
+                // Retry up to 2 times, with backoff, for failures that may go away on their own
+                .retryWhen(Retry.backoff(2, RETRY_BACKOFF).filter(this::isTransient)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .map(response -> response.stream()
+                        .map(this::parseSentimentResponse)
+                        .toList());
+    }
+
+    @Override
+    public String name() {
+        return "huggingface";
+    }
+
+    @Override
+    public boolean isRemote() {
+        return true;
+    }
+
+    private boolean isTransient(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() == 429 || response.getStatusCode().is5xxServerError();
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    private SentimentResponse parseSentimentResponse(List<Map<String, Object>> sentiments) {
+        // A malformed answer fails the batch like any other API error, so the messages stay in the backlog
+        // instead of being stored as NEUTRAL
+        if (sentiments == null || sentiments.isEmpty()) {
+            throw new InferenceUnavailableException("Hugging Face API returned no labels for an input");
+        }
+        try {
+            // Find the sentiment with the highest score
+            Map<String, Object> bestSentiment = sentiments.stream()
+                    .max((s1, s2) -> Double.compare(
+                            ((Number) s1.get("score")).doubleValue(),
+                            ((Number) s2.get("score")).doubleValue()))
+                    .orElseThrow();
+
+            String label = (String) bestSentiment.get("label");
+            double score = ((Number) bestSentiment.get("score")).doubleValue();
+
+            // Convert to our sentiment scale (-1 to 1)
+            return SentimentLabels.toResponse(label, score);
+        } catch (RuntimeException e) {
+            logger.error("Error parsing sentiment response {}", sentiments, e);
+            throw new InferenceUnavailableException("Could not parse Hugging Face API response: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.tonediscord.tone.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Token bucket for tone.analysis.max-requests-per-hour plus a circuit breaker, applied to every remote model request
+@Component
+public class InferenceGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(InferenceGuard.class);
+
+    public enum CircuitState {
+        CLOSED,    // requests go through
+        OPEN,      // requests are rejected until open-duration has passed
+        HALF_OPEN  // a single trial request decides whether to close again
+    }
+
+    public enum Priority {
+        LIVE,       // messages as they arrive and API calls; may use the whole bucket
+        BACKGROUND  // backlog and history backfill; only spends tokens above the live reserve
+    }
+
+    private final double permitsPerNano;
+    private final double burst;
+    private final double backgroundReserve;
+    private final long maxWaitNanos;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private final Timer waitTimer;
+    private final Counter circuitRejectedCounter;
+    private final Counter budgetRejectedCounter;
+    private final Counter backgroundDeferredCounter;
+    private final Map<CircuitState, Counter> transitionCounters = new EnumMap<>(CircuitState.class);
+
+    // Bucket state, guarded by this
+    private double tokens;
+    private long refilledAt;
+
+    // Circuit state, guarded by this
+    private volatile CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public InferenceGuard(MeterRegistry meterRegistry,
+                          @Value("${tone.analysis.max-requests-per-hour:800}") int maxRequestsPerHour,
+                          @Value("${tone.analysis.rate-limit.burst:20}") int burst,
+                          @Value("${tone.analysis.rate-limit.background-reserve:10}") int backgroundReserve,
+                          @Value("${tone.analysis.rate-limit.max-wait:5s}") Duration maxWait,
+                          @Value("${tone.analysis.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                          @Value("${tone.analysis.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        // A budget of 0 or less turns the limiter off
+        this.permitsPerNano = maxRequestsPerHour > 0 ? maxRequestsPerHour / (double) TimeUnit.HOURS.toNanos(1) : 0;
+        this.burst = Math.max(1, burst);
+        // At least one token above the reserve has to be reachable, or background work would never run
+        this.backgroundReserve = Math.max(0, Math.min(backgroundReserve, this.burst - 1));
+        this.maxWaitNanos = maxWait.toNanos();
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+        this.tokens = this.burst;
+        this.refilledAt = System.nanoTime();
+
+        this.waitTimer = Timer.builder("tone.analysis.ratelimit.wait").register(meterRegistry);
+        this.circuitRejectedCounter = meterRegistry.counter("tone.analysis.rejected", "reason", "circuit-open");
+        this.budgetRejectedCounter = meterRegistry.counter("tone.analysis.rejected", "reason", "budget-exhausted");
+        this.backgroundDeferredCounter = meterRegistry.counter("tone.analysis.rejected", "reason", "background-deferred");
+        for (CircuitState target : CircuitState.values()) {
+            transitionCounters.put(target, meterRegistry.counter("tone.analysis.circuit.transitions",
+                    "to", target.name().toLowerCase()));
+        }
+        Gauge.builder("tone.analysis.circuit.state", this, guard -> guard.state.ordinal()).register(meterRegistry);
+        Gauge.builder("tone.analysis.ratelimit.available", this, InferenceGuard::availablePermits).register(meterRegistry);
+    }
+
+    public <T> Mono<T> call(Supplier<Mono<T>> request) {
+        return call(Priority.LIVE, request);
+    }
+
+    public <T> Mono<T> call(Priority priority, Supplier<Mono<T>> request) {
+        return Mono.defer(() -> {
+            if (!tryEnterCircuit()) {
+                circuitRejectedCounter.increment();
+                return Mono.error(new InferenceUnavailableException("Sentiment model circuit is open"));
+            }
+
+            long waitNanos = reservePermit(priority);
+            if (waitNanos < 0) {
+                leaveCircuitUnjudged();
+                if (priority == Priority.BACKGROUND) {
+                    backgroundDeferredCounter.increment();
+                    return Mono.error(new InferenceUnavailableException(
+                            "Request budget above the live reserve is exhausted, background request deferred"));
+                }
+                budgetRejectedCounter.increment();
+                return Mono.error(new InferenceUnavailableException("Hourly sentiment request budget is exhausted"));
+            }
+            waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+
+            Mono<T> call = waitNanos > 0
+                    ? Mono.delay(Duration.ofNanos(waitNanos)).then(Mono.defer(request))
+                    : Mono.defer(request);
+            return call
+                    .doOnSuccess(result -> recordSuccess())
+                    .doOnError(error -> recordFailure())
+                    .doOnCancel(this::leaveCircuitUnjudged);
+        });
+    }
+
+    // Cheap pre-check for callers that would otherwise claim work only to have every request rejected
+    public synchronized boolean isAvailable(Priority priority) {
+        if (state == CircuitState.OPEN && System.nanoTime() - openedAt < openNanos) {
+            return false;
+        }
+        return permitsPerNano == 0 || waitForPermit(priority, System.nanoTime()) <= maxWaitNanos;
+    }
+
+    private synchronized long reservePermit(Priority priority) {
+        if (permitsPerNano == 0) {
+            return 0;
+        }
+
+        // Going below zero reserves a future permit, so concurrent waiters queue up behind each other
+        long waitNanos = waitForPermit(priority, System.nanoTime());
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    // Background requests wait for the bucket to refill past the reserve, so live traffic always finds it there
+    private long waitForPermit(Priority priority, long now) {
+        tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+
+        double needed = priority == Priority.BACKGROUND ? backgroundReserve + 1 : 1;
+        return tokens >= needed ? 0 : (long) Math.ceil((needed - tokens) / permitsPerNano);
+    }
+
+    private synchronized double availablePermits() {
+        if (permitsPerNano == 0) {
+            return burst;
+        }
+        return Math.max(0, Math.min(burst, tokens + (System.nanoTime() - refilledAt) * permitsPerNano));
+    }
+
+    private synchronized boolean tryEnterCircuit() {
+        if (state == CircuitState.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            transition(CircuitState.HALF_OPEN);
+        }
+        if (state == CircuitState.CLOSED) {
+            return true;
+        }
+        if (state == CircuitState.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void leaveCircuitUnjudged() {
+        trialInFlight = false;
+    }
+
+    private synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state == CircuitState.HALF_OPEN) {
+            transition(CircuitState.CLOSED);
+        }
+    }
+
+    private synchronized void recordFailure() {
+        trialInFlight = false;
+        if (state == CircuitState.HALF_OPEN
+                || (state == CircuitState.CLOSED && ++consecutiveFailures >= failureThreshold)) {
+            openedAt = System.nanoTime();
+            transition(CircuitState.OPEN);
+        }
+    }
+
+    private void transition(CircuitState target) {
+        if (target == CircuitState.OPEN) {
+            logger.warn("Sentiment model circuit {} -> OPEN, rejecting requests for {}s",
+                    state, TimeUnit.NANOSECONDS.toSeconds(openNanos));
+        } else {
+            logger.info("Sentiment model circuit {} -> {}", state, target);
+        }
+        state = target;
+        consecutiveFailures = 0;
+        transitionCounters.get(target).increment();
+    }
+}
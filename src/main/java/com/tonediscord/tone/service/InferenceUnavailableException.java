@@ -0,0 +1,12 @@
+package com.tonediscord.tone.service;
+
+// No usable result from the model: its circuit is open, the hourly request budget is spent, the batch queue is full,
+// or the remote API answered with something that could not be parsed
+public class InferenceUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InferenceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,208 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// VADER-style first pass: short, one-sided messages are scored from a word/emoji table without calling the model
+@Component
+public class LexiconSentimentScorer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LexiconSentimentScorer.class);
+
+    // Constants from VADER (Hutto & Gilbert, 2014)
+    private static final double BOOSTER_INCREMENT = 0.293;
+    private static final double CAPS_INCREMENT = 0.733;
+    private static final double EXCLAMATION_INCREMENT = 0.292;
+    private static final int MAX_EXCLAMATIONS = 4;
+    private static final double NORMALIZATION_ALPHA = 15.0;
+
+    private static final Set<String> BOOSTERS = Set.of("very", "so", "soo", "sooo", "really", "super", "extremely",
+            "totally", "absolutely", "incredibly", "hella", "too");
+    // The lexicon cannot tell what these do to the rest of the sentence, so the model gets them
+    private static final Set<String> NEGATIONS = Set.of("not", "no", "never", "nothing", "nobody", "none", "neither",
+            "dont", "don't", "doesnt", "doesn't", "didnt", "didn't", "isnt", "isn't", "wasnt", "wasn't", "arent",
+            "aren't", "aint", "ain't", "cant", "can't", "cannot", "wont", "won't", "wouldnt", "wouldn't", "without");
+    private static final Set<String> CONTRASTS = Set.of("but", "though", "although", "however", "yet", "except");
+
+    private final Map<String, Double> valences;
+    private final Counter hitCounter;
+    private final Counter escalatedCounter;
+
+    @Value("${tone.analysis.lexicon.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tone.analysis.lexicon.min-confidence:0.5}")
+    private double minConfidence;
+
+    @Value("${tone.analysis.lexicon.max-tokens:12}")
+    private int maxTokens;
+
+    public LexiconSentimentScorer(MeterRegistry meterRegistry,
+                                  @Value("${tone.analysis.lexicon.location:classpath:sentiment/lexicon.tsv}")
+                                  Resource lexicon) {
+        this.valences = load(lexicon);
+        // Escalation rate = escalated / (hit + escalated)
+        this.hitCounter = meterRegistry.counter("tone.analysis.lexicon", "outcome", "hit");
+        this.escalatedCounter = meterRegistry.counter("tone.analysis.lexicon", "outcome", "escalated");
+        logger.info("Loaded sentiment lexicon with {} entries", valences.size());
+    }
+
+    // Returns null when the text should go to the model instead
+    public SentimentResponse score(String cleanText) {
+        if (!enabled) {
+            return null;
+        }
+
+        SentimentResponse result = tryScore(cleanText);
+        (result != null ? hitCounter : escalatedCounter).increment();
+        return result;
+    }
+
+    private SentimentResponse tryScore(String text) {
+        boolean shouting = isUpperCase(text, 0, text.length());
+        double sum = 0;
+        int tokens = 0;
+        int exclamations = 0;
+        boolean positive = false;
+        boolean negative = false;
+        boolean boosted = false;
+
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            int cp = text.codePointAt(i);
+            int next = i + Character.charCount(cp);
+
+            if (Character.isWhitespace(cp)) {
+                i = next;
+                continue;
+            }
+            if (cp == '?') {
+                return null;
+            }
+            if (cp == '!') {
+                exclamations++;
+                i = next;
+                continue;
+            }
+
+            // Emoticons like ":D" or "<3" run to the end of the whitespace-delimited token
+            int tokenEnd = i;
+            while (tokenEnd < length && !Character.isWhitespace(text.charAt(tokenEnd))) {
+                tokenEnd++;
+            }
+            boolean symbolic = !Character.isLetterOrDigit(cp) || !Character.isLetterOrDigit(text.charAt(tokenEnd - 1));
+            Double emoticon = tokenEnd - i > 1 && symbolic ? valences.get(text.substring(i, tokenEnd)) : null;
+
+            double valence;
+            if (emoticon != null) {
+                valence = emoticon;
+                next = tokenEnd;
+            } else if (Character.isLetterOrDigit(cp)) {
+                int end = next;
+                while (end < length && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '\'')) {
+                    end++;
+                }
+                String word = text.substring(i, end).toLowerCase(Locale.ROOT);
+                next = end;
+                if (++tokens > maxTokens || NEGATIONS.contains(word) || CONTRASTS.contains(word)) {
+                    return null;
+                }
+                if (BOOSTERS.contains(word)) {
+                    boosted = true;
+                    i = next;
+                    continue;
+                }
+
+                Double found = valences.get(word);
+                if (found == null) {
+                    boosted = false;
+                    i = next;
+                    continue;
+                }
+                valence = found;
+                if (!shouting && end - i > 1 && isUpperCase(text, i, end)) {
+                    valence += Math.signum(valence) * CAPS_INCREMENT;
+                }
+            } else {
+                // Single emoji, with any trailing variation selector folded into the lookup key
+                Double found = valences.get(text.substring(i, next));
+                if (next < length && text.charAt(next) == '\uFE0F') {
+                    next++;
+                }
+                if (found == null) {
+                    i = next;
+                    continue;
+                }
+                valence = found;
+            }
+
+            if (boosted) {
+                valence += Math.signum(valence) * BOOSTER_INCREMENT;
+                boosted = false;
+            }
+            positive |= valence > 0;
+            negative |= valence < 0;
+            sum += valence;
+            i = next;
+        }
+
+        // Mixed feelings or nothing recognised at all is exactly what the model is for
+        if (positive == negative) {
+            return null;
+        }
+
+        sum += Math.signum(sum) * Math.min(exclamations, MAX_EXCLAMATIONS) * EXCLAMATION_INCREMENT;
+        double compound = sum / Math.sqrt(sum * sum + NORMALIZATION_ALPHA);
+        if (Math.abs(compound) < minConfidence) {
+            return null;
+        }
+        return new SentimentResponse(compound > 0 ? "POSITIVE" : "NEGATIVE", compound);
+    }
+
+    private static boolean isUpperCase(String text, int from, int to) {
+        boolean letters = false;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (Character.isLowerCase(c)) {
+                return false;
+            }
+            letters |= Character.isUpperCase(c);
+        }
+        return letters;
+    }
+
+    private static Map<String, Double> load(Resource lexicon) {
+        Map<String, Double> valences = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(lexicon.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                valences.put(line.substring(0, tab), Double.parseDouble(line.substring(tab + 1).trim()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read sentiment lexicon " + lexicon.getDescription(), e);
+        }
+        return valences;
+    }
+}
@@ -0,0 +1,270 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import com.tonediscord.tone.entity.DiscordMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Gateway event -> bounded queue -> persist -> analyze -> aggregate, each stage with its own workers
+@Service
+public class MessageIngestionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageIngestionPipeline.class);
+    private static final long PERSIST_RETRY_INITIAL_MS = 500;
+    private static final long PERSIST_RETRY_MAX_MS = 30_000;
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+    public enum OverloadPolicy {
+        DROP,   // discard the message
+        SPILL,  // store it unprocessed on the caller thread and leave scoring to the backlog
+        BLOCK   // block the gateway thread until there is room
+    }
+
+    private final MessageProcessingService messageProcessingService;
+    private final SentimentAnalysisService sentimentService;
+    private final BlockingQueue<DiscordMessage> persistQueue;
+    private final BlockingQueue<DiscordMessage> analyzeQueue;
+    private final BlockingQueue<ScoredMessage> aggregateQueue = new LinkedBlockingQueue<>();
+    // Batches a persist worker had taken but not stored when it was interrupted by shutdown
+    private final Queue<DiscordMessage> stranded = new ConcurrentLinkedQueue<>();
+    private final Semaphore analysisPermits;
+    private final Counter acceptedCounter;
+    private final Counter droppedCounter;
+    private final Counter spilledCounter;
+    private final Counter persistRetryCounter;
+
+    @Value("${tone.ingestion.persist-workers:2}")
+    private int persistWorkers;
+
+    @Value("${tone.ingestion.persist-batch-size:200}")
+    private int persistBatchSize;
+
+    @Value("${tone.ingestion.analyze-workers:1}")
+    private int analyzeWorkers;
+
+    @Value("${tone.ingestion.aggregate-workers:2}")
+    private int aggregateWorkers;
+
+    @Value("${tone.ingestion.aggregate-batch-size:100}")
+    private int aggregateBatchSize;
+
+    @Value("${tone.ingestion.overload-policy:SPILL}")
+    private OverloadPolicy overloadPolicy;
+
+    private ExecutorService persistExecutor;
+    private ExecutorService analyzeExecutor;
+    private ExecutorService aggregateExecutor;
+    private volatile boolean running;
+
+    public MessageIngestionPipeline(MessageProcessingService messageProcessingService,
+                                    SentimentAnalysisService sentimentService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${tone.ingestion.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${tone.ingestion.analyze-concurrency:64}") int analyzeConcurrency) {
+        this.messageProcessingService = messageProcessingService;
+        this.sentimentService = sentimentService;
+        this.persistQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.analyzeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        // Permits cover a message from analysis start until aggregation, which also bounds the aggregate queue
+        this.analysisPermits = new Semaphore(analyzeConcurrency);
+
+        Gauge.builder("tone.ingestion.queue.depth", persistQueue, BlockingQueue::size)
+                .tag("stage", "persist").register(meterRegistry);
+        Gauge.builder("tone.ingestion.queue.depth", analyzeQueue, BlockingQueue::size)
+                .tag("stage", "analyze").register(meterRegistry);
+        Gauge.builder("tone.ingestion.queue.depth", aggregateQueue, BlockingQueue::size)
+                .tag("stage", "aggregate").register(meterRegistry);
+        Gauge.builder("tone.ingestion.analysis.in-flight", analysisPermits,
+                        permits -> analyzeConcurrency - permits.availablePermits())
+                .register(meterRegistry);
+        this.acceptedCounter = meterRegistry.counter("tone.ingestion.messages", "outcome", "accepted");
+        this.droppedCounter = meterRegistry.counter("tone.ingestion.messages", "outcome", "dropped");
+        this.spilledCounter = meterRegistry.counter("tone.ingestion.messages", "outcome", "spilled");
+        this.persistRetryCounter = meterRegistry.counter("tone.ingestion.persist.retries");
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        persistExecutor = startStage("ingest-persist-", persistWorkers, persistQueue, this::persist);
+        analyzeExecutor = startStage("ingest-analyze-", analyzeWorkers, analyzeQueue, this::analyze);
+        aggregateExecutor = startStage("ingest-aggregate-", aggregateWorkers, aggregateQueue, this::aggregate);
+        logger.info("Message ingestion pipeline started ({} persist, {} analyze, {} aggregate workers, overload policy {})",
+                persistWorkers, analyzeWorkers, aggregateWorkers, overloadPolicy);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        persistExecutor.shutdownNow();
+        analyzeExecutor.shutdownNow();
+        aggregateExecutor.shutdownNow();
+        try {
+            // Let persist workers finish an insert already in progress, or hand back the batch they were holding
+            persistExecutor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Anything not yet persisted is stored unprocessed so the backlog picks it up after restart
+        List<DiscordMessage> unpersisted = new ArrayList<>(stranded);
+        persistQueue.drainTo(unpersisted);
+        if (!unpersisted.isEmpty()) {
+            storeQuietly(unpersisted);
+            logger.info("Stored {} queued messages as unprocessed during shutdown", unpersisted.size());
+        }
+    }
+
+    public void submit(DiscordMessage message) {
+        if (!running) {
+            storeQuietly(List.of(message));
+            return;
+        }
+
+        if (persistQueue.offer(message)) {
+            acceptedCounter.increment();
+            return;
+        }
+
+        switch (overloadPolicy) {
+            case DROP -> {
+                droppedCounter.increment();
+                logger.debug("Ingestion queue full, dropped message {}", message.getDiscordMessageId());
+            }
+            case SPILL -> {
+                spilledCounter.increment();
+                storeQuietly(List.of(message));
+            }
+            case BLOCK -> {
+                try {
+                    persistQueue.put(message);
+                    acceptedCounter.increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedCounter.increment();
+                }
+            }
+        }
+    }
+
+    private void persist(DiscordMessage first) throws InterruptedException {
+        // Take whatever else is already waiting so it goes out in the same multi-row insert
+        List<DiscordMessage> batch = new ArrayList<>(persistBatchSize);
+        batch.add(first);
+        persistQueue.drainTo(batch, persistBatchSize - 1);
+
+        List<DiscordMessage> stored;
+        try {
+            stored = storeWithRetry(batch);
+        } catch (InterruptedException e) {
+            stranded.addAll(batch);
+            throw e;
+        }
+        for (DiscordMessage message : stored) {
+            analyzeQueue.put(message);
+        }
+    }
+
+    private List<DiscordMessage> storeWithRetry(List<DiscordMessage> batch) throws InterruptedException {
+        // The batch is already off the queue, so it is held here until the database takes it. Meanwhile the queue
+        // fills up and the overload policy applies to new messages, as for any other slow persist.
+        long backoffMs = PERSIST_RETRY_INITIAL_MS;
+        while (true) {
+            try {
+                return messageProcessingService.storeMessages(batch);
+            } catch (Exception e) {
+                if (!running) {
+                    throw new InterruptedException("Shutting down with " + batch.size() + " messages unstored");
+                }
+                persistRetryCounter.increment();
+                logger.warn("Failed to store {} messages, retrying in {}ms: {}", batch.size(), backoffMs, e.getMessage());
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, PERSIST_RETRY_MAX_MS);
+            }
+        }
+    }
+
+    private void analyze(DiscordMessage message) throws InterruptedException {
+        analysisPermits.acquire();
+        sentimentService.analyzeSentimentAsync(message.getMessageContent())
+                .subscribe(
+                        sentiment -> aggregateQueue.add(new ScoredMessage(message, sentiment)),
+                        error -> {
+                            // The message is already stored unprocessed, so the backlog drainer retries it later
+                            analysisPermits.release();
+                            if (error instanceof InferenceUnavailableException) {
+                                logger.debug("Message {} left for the backlog: {}", message.getId(), error.getMessage());
+                            } else {
+                                logger.error("Error analyzing message {}: {}", message.getId(), error.getMessage());
+                            }
+                        });
+    }
+
+    private void aggregate(ScoredMessage first) {
+        // Mark everything already scored in one transaction rather than one per message
+        List<ScoredMessage> batch = new ArrayList<>(aggregateBatchSize);
+        batch.add(first);
+        aggregateQueue.drainTo(batch, aggregateBatchSize - 1);
+        try {
+            messageProcessingService.applySentiments(batch.stream().map(ScoredMessage::message).toList(),
+                    batch.stream().map(ScoredMessage::sentiment).toList());
+        } finally {
+            analysisPermits.release(batch.size());
+        }
+    }
+
+    private void storeQuietly(List<DiscordMessage> messages) {
+        try {
+            messageProcessingService.storeMessages(messages);
+        } catch (Exception e) {
+            logger.error("Failed to store {} messages: {}", messages.size(), e.getMessage());
+        }
+    }
+
+    private <T> ExecutorService startStage(String threadPrefix, int workers, BlockingQueue<T> queue,
+                                           StageHandler<T> handler) {
+        ExecutorService executor = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory(threadPrefix));
+        for (int i = 0; i < workers; i++) {
+            executor.execute(() -> {
+                while (running) {
+                    try {
+                        handler.handle(queue.take());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        logger.error("Error in ingestion stage {}: {}", threadPrefix, e.getMessage());
+                    }
+                }
+            });
+        }
+        return executor;
+    }
+
+    @FunctionalInterface
+    private interface StageHandler<T> {
+        void handle(T item) throws InterruptedException;
+    }
+
+    private record ScoredMessage(DiscordMessage message, SentimentResponse sentiment) {}
+}
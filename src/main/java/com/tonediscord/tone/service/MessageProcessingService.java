@@ -1,32 +1,55 @@
 package com.tonediscord.tone.service;
 
+import com.tonediscord.tone.config.AsyncConfig;
+import com.tonediscord.tone.dto.GuildStats;
 import com.tonediscord.tone.dto.LeaderboardEntry;
 import com.tonediscord.tone.dto.SentimentResponse;
+import com.tonediscord.tone.entity.AggregationGeneration;
 import com.tonediscord.tone.entity.DiscordMessage;
 import com.tonediscord.tone.entity.UserSentimentSummary;
+import com.tonediscord.tone.repository.AggregationGenerationRepository;
 import com.tonediscord.tone.repository.DiscordMessageRepository;
 import com.tonediscord.tone.repository.UserSentimentSummaryRepository;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class MessageProcessingService {
     
     private static final Logger logger = LoggerFactory.getLogger(MessageProcessingService.class);
+    private static final Pageable LEADERBOARD_SIZE = PageRequest.of(0, 5);
+    // Backfilled history arrives newest first and hours late; replaying it would trip the shift detector
+    private static final Duration LIVE_MESSAGE_AGE = Duration.ofMinutes(15);
     
     private final DiscordMessageRepository messageRepository;
     private final UserSentimentSummaryRepository summaryRepository;
+    private final AggregationGenerationRepository generationRepository;
     private final SentimentAnalysisService sentimentService;
+    private final SentimentSummaryAggregator summaryAggregator;
+    private final SentimentRollupAggregator rollupAggregator;
+    private final VibeWindowTracker vibeWindowTracker;
+    private final VibeShiftDetector vibeShiftDetector;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler processingScheduler;
     
     @Value("${tone.analysis.sentiment-threshold:0.7}")
     private Double sentimentThreshold;
@@ -36,73 +59,124 @@ public class MessageProcessingService {
 
     public MessageProcessingService(DiscordMessageRepository messageRepository,
                                   UserSentimentSummaryRepository summaryRepository,
-                                  SentimentAnalysisService sentimentService) {
+                                  AggregationGenerationRepository generationRepository,
+                                  SentimentAnalysisService sentimentService,
+                                  SentimentSummaryAggregator summaryAggregator,
+                                  SentimentRollupAggregator rollupAggregator,
+                                  VibeWindowTracker vibeWindowTracker,
+                                  VibeShiftDetector vibeShiftDetector,
+                                  TransactionTemplate transactionTemplate,
+                                  @Qualifier(AsyncConfig.MESSAGE_PROCESSING_EXECUTOR) TaskExecutor processingExecutor) {
         this.messageRepository = messageRepository;
         this.summaryRepository = summaryRepository;
+        this.generationRepository = generationRepository;
         this.sentimentService = sentimentService;
+        this.summaryAggregator = summaryAggregator;
+        this.rollupAggregator = rollupAggregator;
+        this.vibeWindowTracker = vibeWindowTracker;
+        this.vibeShiftDetector = vibeShiftDetector;
+        this.transactionTemplate = transactionTemplate;
+        this.processingScheduler = Schedulers.fromExecutor(processingExecutor);
     }
 
-    @Async
-    @Transactional
-    public void processMessage(DiscordMessage message) {
-        try {
-            // Analyze sentiment
-            SentimentResponse sentiment = sentimentService.analyzeSentiment(message.getMessageContent());
-            
-            // Update message with sentiment data
-            message.setSentimentScore(sentiment.getScore());
-            message.setSentimentLabel(sentiment.getLabel());
-            message.setProcessed(true);
-            messageRepository.save(message);
-            
-            // Update user summary
-            updateUserSummary(message, sentiment);
-            
-            logger.debug("Processed message from {}: {} -> {} ({})", 
-                        message.getUsername(), 
-                        message.getMessageContent().substring(0, Math.min(30, message.getMessageContent().length())),
-                        sentiment.getLabel(), 
-                        sentiment.getScore());
-            
-        } catch (Exception e) {
-            logger.error("Error processing message {}: {}", message.getId(), e.getMessage());
-        }
+    public List<DiscordMessage> storeMessages(List<DiscordMessage> messages) {
+        // Already-stored messages are skipped by the insert itself instead of a lookup per message
+        List<DiscordMessage> stored = messageRepository.insertIgnoringDuplicates(messages);
+        logger.debug("Stored {} of {} messages", stored.size(), messages.size());
+        return stored;
     }
 
-    private void updateUserSummary(DiscordMessage message, SentimentResponse sentiment) {
-        UserSentimentSummary summary = summaryRepository
-                .findByUserIdAndGuildId(message.getUserId(), message.getGuildId())
-                .orElse(new UserSentimentSummary(message.getUserId(), message.getUsername(), message.getGuildId()));
-        
-        summary.updateWithNewMessage(sentiment.getScore(), sentiment.getLabel());
-        summaryRepository.save(summary);
+    public CompletableFuture<Void> processMessages(List<DiscordMessage> messages, int parallelism,
+                                                   InferenceGuard.Priority priority) {
+        // flatMapSequential keeps results in message order while analyzing up to `parallelism` at once
+        return Flux.fromIterable(messages)
+                .flatMapSequential(message -> sentimentService
+                        .analyzeSentimentAsync(message.getMessageContent(), priority)
+                        .map(sentiment -> new ScoredMessage(message, sentiment))
+                        // Unscored messages stay processed=false and are retried once their claim expires
+                        .onErrorResume(e -> Mono.empty()), parallelism)
+                .collectList()
+                // JPA writes are blocking, keep them off the HTTP client's event loop
+                .publishOn(processingScheduler)
+                .doOnNext(scored -> {
+                    if (scored.size() < messages.size()) {
+                        logger.debug("{} of {} messages could not be scored and stay in the backlog",
+                                messages.size() - scored.size(), messages.size());
+                    }
+                    applySentiments(scored.stream().map(ScoredMessage::message).toList(),
+                            scored.stream().map(ScoredMessage::sentiment).toList());
+                })
+                .doOnError(RejectedExecutionException.class,
+                        e -> logger.debug("Processing executor saturated, {} messages stay in the backlog", messages.size()))
+                .doOnError(e -> !(e instanceof RejectedExecutionException),
+                        e -> logger.error("Error processing {} messages: {}", messages.size(), e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .then()
+                .toFuture();
     }
 
-    @Scheduled(fixedRate = 60000) // Run every minute
-    @Transactional
-    public void processUnprocessedMessages() {
-        List<DiscordMessage> unprocessedMessages = messageRepository.findByProcessedFalse();
+    public void applySentiment(DiscordMessage message, SentimentResponse sentiment) {
+        applySentiments(List.of(message), List.of(sentiment));
+    }
+
+    public void applySentiments(List<DiscordMessage> messages, List<SentimentResponse> sentiments) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0; i < messages.size(); i++) {
+            messages.get(i).setSentimentScore(sentiments.get(i).getScore());
+            messages.get(i).setSentimentLabel(sentiments.get(i).getLabel());
+        }
+
+        // One conditional update for the whole chunk; rows another path already scored are left alone and not counted.
+        // The generations are read after the update without a lock: a rebuild's recount waits for this commit and
+        // counts these rows itself, so they must carry the old generation, and an update that waited for a rebuild
+        // reads the generation it committed.
+        Marked result = transactionTemplate.execute(status -> {
+            List<DiscordMessage> marked = messageRepository.markProcessed(messages);
+            return new Marked(marked, generationRepository.findGeneration(AggregationGeneration.SUMMARY),
+                    generationRepository.findGeneration(AggregationGeneration.ROLLUP));
+        });
+        List<DiscordMessage> marked = result.messages();
+        if (marked.size() < messages.size()) {
+            logger.debug("{} of {} messages were already processed elsewhere", messages.size() - marked.size(),
+                    messages.size());
+        }
+        if (marked.isEmpty()) {
+            return;
+        }
         
-        if (!unprocessedMessages.isEmpty()) {
-            logger.info("Processing {} unprocessed messages", unprocessedMessages.size());
-            
-            for (DiscordMessage message : unprocessedMessages) {
-                processMessage(message);
+        // Summaries and rollups are written behind in coalesced batches once the messages themselves are committed
+        LocalDateTime liveSince = LocalDateTime.now(ZoneOffset.UTC).minus(LIVE_MESSAGE_AGE);
+        for (DiscordMessage message : marked) {
+            message.setProcessed(true);
+            message.setClaimedUntil(null);
+            summaryAggregator.record(result.summaryGeneration(), message.getGuildId(), message.getUserId(),
+                    message.getUsername(), message.getSentimentLabel(), message.getSentimentScore());
+            rollupAggregator.record(result.rollupGeneration(), message, message.getSentimentLabel(),
+                    message.getSentimentScore());
+            vibeWindowTracker.record(message.getGuildId(), message.getTimestamp(), message.getSentimentScore());
+            if (message.getTimestamp().isAfter(liveSince)) {
+                vibeShiftDetector.observe(message.getGuildId(), message.getChannelId(), message.getSentimentScore());
             }
         }
+        
+        for (DiscordMessage message : marked) {
+            logger.debug("Processed message from {}: {} -> {} ({})", 
+                        message.getUsername(), 
+                        message.getMessageContent().substring(0, Math.min(30, message.getMessageContent().length())),
+                        message.getSentimentLabel(), 
+                        message.getSentimentScore());
+        }
     }
 
     public void sendStatsMessage(MessageReceivedEvent event) {
         String guildId = event.getGuild().getId();
         
         try {
-            List<UserSentimentSummary> summaries = summaryRepository.findByGuildId(guildId);
-            Long totalMessages = summaries.stream()
-                    .mapToLong(s -> s.getTotalMessages().longValue())
-                    .sum();
-            
-            Double avgSentiment = summaryRepository.getGuildAverageSentiment(guildId);
-            if (avgSentiment == null) avgSentiment = 0.0;
+            GuildStats guildStats = summaryRepository.getGuildStats(guildId);
+            double avgSentiment = guildStats.averageSentiment();
             
             String vibeEmoji = sentimentService.getSentimentEmoji(
                     avgSentiment > 0 ? "POSITIVE" : avgSentiment < 0 ? "NEGATIVE" : "NEUTRAL", 
@@ -118,8 +192,8 @@ public class MessageProcessingService {
                     Use `!tone leaderboard` to see who's the meanest! 😈
                     """, 
                     vibeEmoji, vibeEmoji,
-                    totalMessages,
-                    summaries.size(),
+                    guildStats.totalMessages(),
+                    guildStats.activeUsers(),
                     avgSentiment,
                     getSentimentDescription(avgSentiment));
             
@@ -135,15 +209,9 @@ public class MessageProcessingService {
         String guildId = event.getGuild().getId();
         
         try {
-            List<UserSentimentSummary> meanest = summaryRepository.findMeanestUsers(guildId)
-                    .stream()
-                    .limit(5)
-                    .collect(Collectors.toList());
+            List<UserSentimentSummary> meanest = summaryRepository.findMeanestUsers(guildId, LEADERBOARD_SIZE);
             
-            List<UserSentimentSummary> nicest = summaryRepository.findMostPositiveUsers(guildId)
-                    .stream()
-                    .limit(5)
-                    .collect(Collectors.toList());
+            List<UserSentimentSummary> nicest = summaryRepository.findMostPositiveUsers(guildId, LEADERBOARD_SIZE);
             
             StringBuilder leaderboard = new StringBuilder("🏆 **Vibe Leaderboard** 🏆\n\n");
             
@@ -174,8 +242,7 @@ public class MessageProcessingService {
         
         try {
             // Get recent sentiment (last hour)
-            LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-            Double recentSentiment = messageRepository.getAverageSentimentSince(guildId, oneHourAgo);
+            Double recentSentiment = vibeWindowTracker.getRecentAverage(guildId, Duration.ofHours(1));
             
             if (recentSentiment == null) {
                 event.getChannel().sendMessage("🤔 Not enough recent activity to check the vibe!").queue();
@@ -224,4 +291,8 @@ public class MessageProcessingService {
         if (score > -0.3) return "Maybe it's time for some good news? 📰";
         return "Someone should tell a joke or share a meme! 😅";
     }
+
+    private record ScoredMessage(DiscordMessage message, SentimentResponse sentiment) {}
+
+    private record Marked(List<DiscordMessage> messages, long summaryGeneration, long rollupGeneration) {}
 }
@@ -0,0 +1,168 @@
+package com.tonediscord.tone.service;
+
+import ai.djl.huggingface.tokenizers.Encoding;
+import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import com.tonediscord.tone.dto.SentimentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// In-process scoring with the exported model: tokenizer.json + model.onnx from tone.analysis.onnx.model-dir
+@Component
+@ConditionalOnProperty(name = "tone.analysis.engine", havingValue = "onnx")
+public class OnnxSentimentEngine implements SentimentEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(OnnxSentimentEngine.class);
+
+    @Value("${tone.analysis.onnx.model-dir}")
+    private Path modelDir;
+
+    @Value("${tone.analysis.onnx.max-length:128}")
+    private int maxLength;
+
+    // Threads ONNX Runtime uses inside one batch (matrix ops)
+    @Value("${tone.analysis.onnx.intra-op-threads:0}")
+    private int intraOpThreads;
+
+    // Batches run concurrently; OrtSession.run is thread-safe
+    @Value("${tone.analysis.onnx.concurrent-batches:2}")
+    private int concurrentBatches;
+
+    // <pad> for RoBERTa tokenizers
+    @Value("${tone.analysis.onnx.pad-token-id:1}")
+    private long padTokenId;
+
+    // Output classes in model order (cardiffnlp/twitter-roberta-base-sentiment)
+    @Value("${tone.analysis.onnx.labels:negative,neutral,positive}")
+    private List<String> labels;
+
+    private OrtEnvironment environment;
+    private OrtSession session;
+    private HuggingFaceTokenizer tokenizer;
+    private ExecutorService inferenceExecutor;
+    private Scheduler inferenceScheduler;
+    private boolean needsTokenTypeIds;
+
+    @PostConstruct
+    public void load() throws OrtException, IOException {
+        int threads = intraOpThreads > 0 ? intraOpThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / concurrentBatches);
+
+        environment = OrtEnvironment.getEnvironment();
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            options.setIntraOpNumThreads(threads);
+            session = environment.createSession(modelDir.resolve("model.onnx").toString(), options);
+        }
+        needsTokenTypeIds = session.getInputNames().contains("token_type_ids");
+
+        tokenizer = HuggingFaceTokenizer.builder()
+                .optTokenizerPath(modelDir.resolve("tokenizer.json"))
+                .optMaxLength(maxLength)
+                .optTruncation(true)
+                .optPadding(false)
+                .build();
+
+        inferenceExecutor = Executors.newFixedThreadPool(concurrentBatches, new CustomizableThreadFactory("onnx-inference-"));
+        inferenceScheduler = Schedulers.fromExecutor(inferenceExecutor);
+        logger.info("Loaded ONNX sentiment model from {} ({} concurrent batches x {} threads)",
+                modelDir, concurrentBatches, threads);
+    }
+
+    @PreDestroy
+    public void close() throws OrtException {
+        if (inferenceExecutor != null) {
+            inferenceExecutor.shutdown();
+        }
+        if (session != null) {
+            session.close();
+        }
+        if (tokenizer != null) {
+            tokenizer.close();
+        }
+    }
+
+    @Override
+    public Mono<List<SentimentResponse>> analyzeBatch(List<String> texts) {
+        // Inference is CPU-bound and blocking, so it runs on its own pool rather than the caller's thread
+        return Mono.fromCallable(() -> infer(texts))
+                .subscribeOn(inferenceScheduler);
+    }
+
+    @Override
+    public String name() {
+        return "onnx";
+    }
+
+    private List<SentimentResponse> infer(List<String> texts) throws OrtException {
+        Encoding[] encodings = tokenizer.batchEncode(texts);
+
+        // Pad to the longest text in this batch rather than max-length, short chat messages stay cheap
+        int width = Arrays.stream(encodings).mapToInt(e -> e.getIds().length).max().orElse(1);
+        long[][] inputIds = new long[texts.size()][width];
+        long[][] attentionMask = new long[texts.size()][width];
+        for (int i = 0; i < encodings.length; i++) {
+            long[] ids = encodings[i].getIds();
+            Arrays.fill(inputIds[i], padTokenId);
+            System.arraycopy(ids, 0, inputIds[i], 0, ids.length);
+            Arrays.fill(attentionMask[i], 0, ids.length, 1L);
+        }
+
+        Map<String, OnnxTensor> inputs = new HashMap<>();
+        try {
+            inputs.put("input_ids", OnnxTensor.createTensor(environment, inputIds));
+            inputs.put("attention_mask", OnnxTensor.createTensor(environment, attentionMask));
+            if (needsTokenTypeIds) {
+                inputs.put("token_type_ids", OnnxTensor.createTensor(environment, new long[texts.size()][width]));
+            }
+
+            try (OrtSession.Result result = session.run(inputs)) {
+                float[][] logits = (float[][]) result.get(0).getValue();
+                List<SentimentResponse> responses = new ArrayList<>(logits.length);
+                for (float[] row : logits) {
+                    responses.add(toResponse(row, labels));
+                }
+                return responses;
+            }
+        } finally {
+            inputs.values().forEach(OnnxTensor::close);
+        }
+    }
+
+    static SentimentResponse toResponse(float[] logits, List<String> labels) {
+        // Softmax, keeping only the winning class; labels are in the model's output order
+        int best = 0;
+        for (int i = 1; i < logits.length; i++) {
+            if (logits[i] > logits[best]) {
+                best = i;
+            }
+        }
+        double total = 0;
+        for (float logit : logits) {
+            total += Math.exp(logit - logits[best]);
+        }
+        return SentimentLabels.toResponse(labels.get(best), 1.0 / total);
+    }
+}
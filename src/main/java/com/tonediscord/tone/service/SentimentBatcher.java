@@ -0,0 +1,119 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Collects texts for up to lingerMillis or batchSize items, sends them to the model as one
+// request and completes each caller's future with its own result. At most queueCapacity texts wait at once;
+// beyond that callers are turned away instead of queueing behind a slow or unreachable model.
+public class SentimentBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SentimentBatcher.class);
+
+    private final Function<List<String>, Mono<List<SentimentResponse>>> batchAnalyzer;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<PendingAnalysis> pending;
+    private final Thread dispatcher;
+
+    private volatile boolean running = true;
+
+    public SentimentBatcher(Function<List<String>, Mono<List<SentimentResponse>>> batchAnalyzer,
+                            int batchSize, long lingerMillis, int queueCapacity) {
+        this.batchAnalyzer = batchAnalyzer;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMillis));
+        this.pending = new LinkedBlockingQueue<>(Math.max(this.batchSize, queueCapacity));
+        this.dispatcher = new Thread(this::dispatchLoop, "sentiment-batcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public CompletableFuture<SentimentResponse> submit(String text) {
+        CompletableFuture<SentimentResponse> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("Sentiment batcher is shut down"));
+            return future;
+        }
+        if (!pending.offer(new PendingAnalysis(text, future))) {
+            future.completeExceptionally(new InferenceUnavailableException("Sentiment batch queue is full"));
+        }
+        return future;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+
+        List<PendingAnalysis> leftover = new ArrayList<>();
+        pending.drainTo(leftover);
+        leftover.forEach(p -> p.future().completeExceptionally(
+                new IllegalStateException("Sentiment batcher is shut down")));
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                List<PendingAnalysis> batch = new ArrayList<>(batchSize);
+                batch.add(pending.take());
+
+                // Linger briefly so bursts of messages share one model request
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        pending.drainTo(batch, batchSize - batch.size());
+                        break;
+                    }
+                    PendingAnalysis next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Unexpected error in sentiment batcher", e);
+            }
+        }
+    }
+
+    private void dispatch(List<PendingAnalysis> batch) {
+        List<String> texts = batch.stream().map(PendingAnalysis::text).toList();
+        logger.debug("Dispatching sentiment batch of {} texts", texts.size());
+
+        batchAnalyzer.apply(texts).defaultIfEmpty(List.of()).subscribe(
+                results -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (i < results.size()) {
+                            batch.get(i).future().complete(results.get(i));
+                        } else {
+                            batch.get(i).future().completeExceptionally(
+                                    new IllegalStateException("Model returned " + results.size()
+                                            + " results for a batch of " + batch.size()));
+                        }
+                    }
+                },
+                error -> batch.forEach(p -> p.future().completeExceptionally(error)));
+    }
+
+    private record PendingAnalysis(String text, CompletableFuture<SentimentResponse> future) {}
+}
@@ -0,0 +1,19 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Scores a batch of cleaned texts; results come back in input order, normalized to NEGATIVE/NEUTRAL/POSITIVE and -1..1
+public interface SentimentEngine {
+
+    Mono<List<SentimentResponse>> analyzeBatch(List<String> texts);
+
+    String name();
+
+    // Remote engines go through the request budget and circuit breaker; a local model needs neither
+    default boolean isRemote() {
+        return false;
+    }
+}
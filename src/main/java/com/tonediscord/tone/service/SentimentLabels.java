@@ -0,0 +1,46 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+
+// Maps the model's three classes onto our labels and -1..1 scale, shared by every engine
+final class SentimentLabels {
+
+    private SentimentLabels() {}
+
+    static SentimentResponse toResponse(String label, double score) {
+        return new SentimentResponse(normalizeLabel(label), normalizeSentimentScore(label, score));
+    }
+
+    static Double normalizeSentimentScore(String label, Double score) {
+        // Convert Hugging Face sentiment to our -1 to 1 scale
+        switch (label.toLowerCase()) {
+            case "label_0": // NEGATIVE
+            case "negative":
+                return -score; // Make negative
+            case "label_1": // NEUTRAL
+            case "neutral":
+                return 0.0; // Keep neutral
+            case "label_2": // POSITIVE
+            case "positive":
+                return score; // Keep positive
+            default:
+                return 0.0;
+        }
+    }
+
+    static String normalizeLabel(String label) {
+        switch (label.toLowerCase()) {
+            case "label_0":
+            case "negative":
+                return "NEGATIVE";
+            case "label_1":
+            case "neutral":
+                return "NEUTRAL";
+            case "label_2":
+            case "positive":
+                return "POSITIVE";
+            default:
+                return "NEUTRAL";
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.tonediscord.tone.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tonediscord.tone.dto.SentimentResponse;
+import com.tonediscord.tone.entity.SentimentCacheEntry;
+import com.tonediscord.tone.repository.SentimentCacheEntryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class SentimentResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SentimentResultCache.class);
+
+    private final SentimentCacheEntryRepository entryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, SentimentResponse> cache;
+    private final Object snapshotLock = new Object();
+
+    @Value("${tone.analysis.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tone.analysis.cache.persistent:false}")
+    private boolean persistent;
+
+    @Value("${tone.analysis.cache.warm-size:2000}")
+    private int warmSize;
+
+    public SentimentResultCache(SentimentCacheEntryRepository entryRepository,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${tone.analysis.cache.max-size:50000}") long maxSize,
+                                @Value("${tone.analysis.cache.ttl:24h}") Duration ttl) {
+        this.entryRepository = entryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "sentiment-results");
+    }
+
+    public SentimentResponse get(String cleanText) {
+        return enabled ? cache.getIfPresent(cleanText) : null;
+    }
+
+    public void put(String cleanText, SentimentResponse sentiment) {
+        if (enabled) {
+            cache.put(cleanText, sentiment);
+        }
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (!enabled || !persistent) {
+            return;
+        }
+
+        try {
+            List<SentimentCacheEntry> entries = entryRepository.findAll(PageRequest.of(0, warmSize)).getContent();
+            entries.forEach(entry -> cache.put(entry.getCleanedText(),
+                    new SentimentResponse(entry.getSentimentLabel(), entry.getSentimentScore())));
+            logger.info("Warmed sentiment cache with {} persisted entries", entries.size());
+        } catch (Exception e) {
+            logger.warn("Could not warm sentiment cache from database: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tone.analysis.cache.snapshot-interval-ms:600000}",
+               initialDelayString = "${tone.analysis.cache.snapshot-interval-ms:600000}")
+    public void snapshotHotSet() {
+        if (!enabled || !persistent) {
+            return;
+        }
+
+        try {
+            // Only the most frequently hit texts are worth surviving a restart
+            Map<String, SentimentResponse> hottest = cache.policy().eviction()
+                    .map(eviction -> eviction.hottest(warmSize))
+                    .orElse(Map.of());
+
+            List<SentimentCacheEntry> entries = hottest.entrySet().stream()
+                    .map(e -> new SentimentCacheEntry(persistentKey(e.getKey()), e.getKey(),
+                            e.getValue().getLabel(), e.getValue().getScore()))
+                    .toList();
+
+            // The scheduled snapshot and the shutdown one must not interleave their delete and insert
+            synchronized (snapshotLock) {
+                transactionTemplate.executeWithoutResult(status -> entryRepository.replaceSnapshot(entries));
+            }
+            logger.debug("Persisted {} hot sentiment cache entries", entries.size());
+        } catch (Exception e) {
+            logger.warn("Could not persist sentiment cache: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotHotSet();
+    }
+
+    static String persistentKey(String cleanText) {
+        // 64-bit FNV-1a keeps the primary key short regardless of message length
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < cleanText.length(); i++) {
+            hash ^= cleanText.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return String.format("%016x", hash);
+    }
+}
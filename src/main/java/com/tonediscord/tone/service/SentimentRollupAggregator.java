@@ -0,0 +1,182 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.RollupDelta;
+import com.tonediscord.tone.entity.AggregationGeneration;
+import com.tonediscord.tone.entity.DiscordMessage;
+import com.tonediscord.tone.entity.SentimentRollup;
+import com.tonediscord.tone.repository.AggregationGenerationRepository;
+import com.tonediscord.tone.repository.SentimentRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps hourly/daily sentiment buckets per guild, channel and user, written behind and fenced against rebuilds
+// by the rollup generation the same way as the user summaries
+@Service
+public class SentimentRollupAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SentimentRollupAggregator.class);
+
+    private final SentimentRollupRepository rollupRepository;
+    private final AggregationGenerationRepository generationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final GuildResponseCache responseCache;
+    private final ConcurrentHashMap<BucketKey, Accumulator> pending = new ConcurrentHashMap<>();
+    private final Counter flushedCounter;
+    private final Counter fencedCounter;
+
+    @Value("${tone.aggregation.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    public SentimentRollupAggregator(SentimentRollupRepository rollupRepository,
+                                     AggregationGenerationRepository generationRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     GuildResponseCache responseCache,
+                                     MeterRegistry meterRegistry) {
+        this.rollupRepository = rollupRepository;
+        this.generationRepository = generationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.responseCache = responseCache;
+        this.flushedCounter = meterRegistry.counter("tone.rollup.flushed.rows");
+        this.fencedCounter = meterRegistry.counter("tone.rollup.fenced.rows");
+        Gauge.builder("tone.rollup.pending.buckets", pending, Map::size).register(meterRegistry);
+    }
+
+    public void record(long generation, DiscordMessage message, String label, double score) {
+        for (SentimentRollup.Granularity granularity : SentimentRollup.Granularity.values()) {
+            LocalDateTime bucketStart = granularity.truncate(message.getTimestamp());
+            add(new BucketKey(generation, granularity, SentimentRollup.Scope.GUILD, message.getGuildId(),
+                    message.getGuildId(), bucketStart), label, score);
+            add(new BucketKey(generation, granularity, SentimentRollup.Scope.CHANNEL, message.getGuildId(),
+                    message.getChannelId(), bucketStart), label, score);
+            add(new BucketKey(generation, granularity, SentimentRollup.Scope.USER, message.getGuildId(),
+                    message.getUserId(), bucketStart), label, score);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tone.aggregation.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<PendingDelta> deltas = new ArrayList<>(pending.size());
+        for (BucketKey key : pending.keySet()) {
+            Accumulator acc = pending.remove(key);
+            if (acc != null) {
+                deltas.add(new PendingDelta(key.generation(), acc.toDelta(key)));
+            }
+        }
+
+        for (int start = 0; start < deltas.size(); start += flushBatchSize) {
+            List<PendingDelta> batch = deltas.subList(start, Math.min(deltas.size(), start + flushBatchSize));
+            try {
+                List<RollupDelta> applied = transactionTemplate.execute(status -> {
+                    long generation = generationRepository.lockByName(AggregationGeneration.ROLLUP).getGeneration();
+                    List<RollupDelta> current = batch.stream()
+                            .filter(delta -> delta.generation() >= generation)
+                            .map(PendingDelta::delta)
+                            .toList();
+                    rollupRepository.applyDeltas(current);
+                    return current;
+                });
+                flushedCounter.increment(applied.size());
+                fencedCounter.increment(batch.size() - applied.size());
+                responseCache.invalidate(GuildResponseCache.Group.ROLLUP, applied.stream().map(RollupDelta::guildId).distinct().toList());
+            } catch (Exception e) {
+                // Put the increments back so the next flush retries them
+                logger.error("Failed to flush {} rollup updates, will retry: {}", batch.size(), e.getMessage());
+                batch.forEach(this::restore);
+            }
+        }
+        logger.debug("Flushed {} coalesced rollup updates", deltas.size());
+    }
+
+    public synchronized int rebuild() {
+        Integer rebuilt = transactionTemplate.execute(status -> {
+            // Waits for in-flight marks and flushes, and holds new ones off until the recount commits. Buckets
+            // pending under the old generation are then dropped by whichever instance flushes them.
+            generationRepository.advanceGeneration(AggregationGeneration.ROLLUP);
+            return rollupRepository.rebuildFromMessages();
+        });
+        responseCache.invalidateAll(GuildResponseCache.Group.ROLLUP);
+        logger.info("Rebuilt {} sentiment rollup buckets from stored messages", rebuilt);
+        return rebuilt != null ? rebuilt : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void add(BucketKey key, String label, double score) {
+        pending.compute(key, (k, accumulator) -> {
+            Accumulator acc = accumulator != null ? accumulator : new Accumulator();
+            acc.add(label, score);
+            return acc;
+        });
+    }
+
+    private void restore(PendingDelta pendingDelta) {
+        RollupDelta delta = pendingDelta.delta();
+        BucketKey key = new BucketKey(pendingDelta.generation(), delta.granularity(), delta.scope(), delta.guildId(),
+                delta.scopeId(), delta.bucketStart());
+        pending.compute(key, (k, accumulator) -> {
+            Accumulator acc = accumulator != null ? accumulator : new Accumulator();
+            acc.merge(delta);
+            return acc;
+        });
+    }
+
+    private record BucketKey(long generation, SentimentRollup.Granularity granularity, SentimentRollup.Scope scope,
+                             String guildId, String scopeId, LocalDateTime bucketStart) {}
+
+    private record PendingDelta(long generation, RollupDelta delta) {}
+
+    // Only touched inside ConcurrentHashMap.compute/remove, which serialize access per key
+    private static class Accumulator {
+        private long messages;
+        private long positive;
+        private long negative;
+        private long neutral;
+        private double sum;
+
+        void add(String label, double score) {
+            messages++;
+            if ("POSITIVE".equalsIgnoreCase(label)) {
+                positive++;
+            } else if ("NEGATIVE".equalsIgnoreCase(label)) {
+                negative++;
+            } else {
+                neutral++;
+            }
+            sum += score;
+        }
+
+        void merge(RollupDelta delta) {
+            messages += delta.messages();
+            positive += delta.positiveMessages();
+            negative += delta.negativeMessages();
+            neutral += delta.neutralMessages();
+            sum += delta.sentimentSum();
+        }
+
+        RollupDelta toDelta(BucketKey key) {
+            return new RollupDelta(key.granularity(), key.scope(), key.guildId(), key.scopeId(), key.bucketStart(),
+                    messages, positive, negative, neutral, sum);
+        }
+    }
+}
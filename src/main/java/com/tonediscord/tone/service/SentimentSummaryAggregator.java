@@ -0,0 +1,190 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SummaryDelta;
+import com.tonediscord.tone.entity.AggregationGeneration;
+import com.tonediscord.tone.repository.AggregationGenerationRepository;
+import com.tonediscord.tone.repository.UserSentimentSummaryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Absorbs per-message summary increments in memory and writes them as coalesced upserts every few seconds.
+// Increments carry the summary generation their message was marked under; a rebuild bumps it, recounting
+// everything marked so far, so older increments still in memory here or on another instance are dropped.
+@Service
+public class SentimentSummaryAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SentimentSummaryAggregator.class);
+
+    private final UserSentimentSummaryRepository summaryRepository;
+    private final AggregationGenerationRepository generationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final GuildResponseCache responseCache;
+    // compute()/remove() lock only the hash bin, so writers for different users rarely contend
+    private final ConcurrentHashMap<SummaryKey, Accumulator> pending = new ConcurrentHashMap<>();
+    private final Counter flushedCounter;
+    private final Counter fencedCounter;
+
+    @Value("${tone.aggregation.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${tone.aggregation.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    public SentimentSummaryAggregator(UserSentimentSummaryRepository summaryRepository,
+                                      AggregationGenerationRepository generationRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      GuildResponseCache responseCache,
+                                      MeterRegistry meterRegistry) {
+        this.summaryRepository = summaryRepository;
+        this.generationRepository = generationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.responseCache = responseCache;
+        this.flushedCounter = meterRegistry.counter("tone.aggregation.flushed.rows");
+        this.fencedCounter = meterRegistry.counter("tone.aggregation.fenced.rows");
+        Gauge.builder("tone.aggregation.pending.users", pending, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void rebuildIfConfigured() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+
+        // Increments that were still in memory when the last process died are recovered from discord_messages
+        rebuild();
+    }
+
+    public int rebuild() {
+        Integer rebuilt = transactionTemplate.execute(status -> {
+            // Waits for in-flight marks and flushes, and holds new ones off until the recount commits
+            generationRepository.advanceGeneration(AggregationGeneration.SUMMARY);
+            return summaryRepository.rebuildFromMessages();
+        });
+        responseCache.invalidateAll(GuildResponseCache.Group.SUMMARY);
+        logger.info("Rebuilt {} user sentiment summaries from stored messages", rebuilt);
+        return rebuilt != null ? rebuilt : 0;
+    }
+
+    public void record(long generation, String guildId, String userId, String username, String label, double score) {
+        pending.compute(new SummaryKey(generation, guildId, userId), (key, accumulator) -> {
+            Accumulator acc = accumulator != null ? accumulator : new Accumulator();
+            acc.add(username, label, score);
+            return acc;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${tone.aggregation.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<PendingDelta> deltas = new ArrayList<>(pending.size());
+        for (SummaryKey key : pending.keySet()) {
+            Accumulator acc = pending.remove(key);
+            if (acc != null) {
+                deltas.add(new PendingDelta(key.generation(), acc.toDelta(key)));
+            }
+        }
+
+        for (int start = 0; start < deltas.size(); start += flushBatchSize) {
+            List<PendingDelta> batch = deltas.subList(start, Math.min(deltas.size(), start + flushBatchSize));
+            try {
+                List<SummaryDelta> applied = transactionTemplate.execute(status -> {
+                    long generation = generationRepository.lockByName(AggregationGeneration.SUMMARY).getGeneration();
+                    List<SummaryDelta> current = batch.stream()
+                            .filter(delta -> delta.generation() >= generation)
+                            .map(PendingDelta::delta)
+                            .toList();
+                    summaryRepository.applyDeltas(current);
+                    return current;
+                });
+                flushedCounter.increment(applied.size());
+                fencedCounter.increment(batch.size() - applied.size());
+                responseCache.invalidate(GuildResponseCache.Group.SUMMARY, applied.stream().map(SummaryDelta::guildId).distinct().toList());
+            } catch (Exception e) {
+                // Put the increments back so the next flush retries them
+                logger.error("Failed to flush {} summary updates, will retry: {}", batch.size(), e.getMessage());
+                batch.forEach(this::restore);
+            }
+        }
+        logger.debug("Flushed {} coalesced summary updates", deltas.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void restore(PendingDelta pendingDelta) {
+        SummaryDelta delta = pendingDelta.delta();
+        pending.compute(new SummaryKey(pendingDelta.generation(), delta.guildId(), delta.userId()), (key, accumulator) -> {
+            Accumulator acc = accumulator != null ? accumulator : new Accumulator();
+            acc.merge(delta);
+            return acc;
+        });
+    }
+
+    private record SummaryKey(long generation, String guildId, String userId) {}
+
+    private record PendingDelta(long generation, SummaryDelta delta) {}
+
+    // Only touched inside ConcurrentHashMap.compute/remove, which serialize access per key
+    private static class Accumulator {
+        private String username;
+        private int messages;
+        private int positive;
+        private int negative;
+        private int neutral;
+        private double sum;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double min = Double.POSITIVE_INFINITY;
+
+        void add(String username, String label, double score) {
+            this.username = username;
+            messages++;
+            if ("POSITIVE".equalsIgnoreCase(label)) {
+                positive++;
+            } else if ("NEGATIVE".equalsIgnoreCase(label)) {
+                negative++;
+            } else {
+                neutral++;
+            }
+            sum += score;
+            max = Math.max(max, score);
+            min = Math.min(min, score);
+        }
+
+        void merge(SummaryDelta delta) {
+            if (username == null) {
+                username = delta.username();
+            }
+            messages += delta.messages();
+            positive += delta.positiveMessages();
+            negative += delta.negativeMessages();
+            neutral += delta.neutralMessages();
+            sum += delta.sentimentSum();
+            max = Math.max(max, delta.mostPositiveScore());
+            min = Math.min(min, delta.mostNegativeScore());
+        }
+
+        SummaryDelta toDelta(SummaryKey key) {
+            return new SummaryDelta(key.userId(), username, key.guildId(),
+                    messages, positive, negative, neutral, sum, max, min);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tonediscord.tone.service;
+
+// Strips Discord mentions, channel refs and custom emoji and collapses whitespace in one scan, without regexes
+final class TextNormalizer {
+
+    private TextNormalizer() {}
+
+    static String normalize(String text) {
+        // Most chat messages need no changes at all and are returned without copying
+        if (isNormalized(text)) {
+            return text;
+        }
+
+        int length = text.length();
+        StringBuilder out = new StringBuilder(length);
+        boolean space = false;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isWhitespace(c)) {
+                space = true;
+                i++;
+                continue;
+            }
+
+            int tokenEnd = c == '<' ? discordTokenEnd(text, i) : -1;
+            if (tokenEnd > 0) {
+                i = tokenEnd;
+                continue;
+            }
+
+            // Runs of whitespace become one space, and none is written at either end
+            if (space && out.length() > 0) {
+                out.append(' ');
+            }
+            space = false;
+            out.append(c);
+            i++;
+        }
+        return out.toString();
+    }
+
+    private static boolean isNormalized(String text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '<') {
+                return false;
+            }
+            if (isWhitespace(c) && (c != ' ' || i == 0 || i == length - 1 || text.charAt(i + 1) == ' ')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // End index of <@id>, <@!id>, <@&id>, <#id>, <:name:id> or <a:name:id> starting at `start`, or -1
+    private static int discordTokenEnd(String text, int start) {
+        int i = start + 1;
+        if (i >= text.length()) {
+            return -1;
+        }
+
+        switch (text.charAt(i)) {
+            case '@' -> {
+                i++;
+                if (i < text.length() && (text.charAt(i) == '!' || text.charAt(i) == '&')) {
+                    i++;
+                }
+            }
+            case '#' -> i++;
+            case ':', 'a' -> {
+                if (text.charAt(i) == 'a' && (++i >= text.length() || text.charAt(i) != ':')) {
+                    return -1;
+                }
+                int nameStart = ++i;
+                while (i < text.length() && isWordChar(text.charAt(i))) {
+                    i++;
+                }
+                if (i == nameStart || i >= text.length() || text.charAt(i) != ':') {
+                    return -1;
+                }
+                i++;
+            }
+            default -> {
+                return -1;
+            }
+        }
+
+        int digitsStart = i;
+        while (i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+            i++;
+        }
+        if (i == digitsStart || i >= text.length() || text.charAt(i) != '>') {
+            return -1;
+        }
+        return i + 1;
+    }
+
+    // The same characters as \s and \w in java.util.regex
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
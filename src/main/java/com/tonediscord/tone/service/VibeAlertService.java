@@ -1,52 +1,117 @@
 package com.tonediscord.tone.service;
 
-import com.tonediscord.tone.repository.DiscordMessageRepository;
-import com.tonediscord.tone.repository.UserSentimentSummaryRepository;
+import com.tonediscord.tone.entity.GuildSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class VibeAlertService {
     
     private static final Logger logger = LoggerFactory.getLogger(VibeAlertService.class);
     
-    private final DiscordMessageRepository messageRepository;
-    private final UserSentimentSummaryRepository summaryRepository;
+    public enum AlertMode {
+        STREAMING,  // alert as soon as VibeShiftDetector sees a shift
+        POLLING     // compare 30-minute averages on every tick
+    }
+    
+    private final VibeWindowTracker vibeWindowTracker;
+    private final VibeShiftDetector vibeShiftDetector;
+    private final GuildSettingsService guildSettingsService;
     private final DiscordBotService discordBotService;
     
     @Value("${tone.analysis.vibe-shift-threshold:0.5}")
     private Double vibeShiftThreshold;
     
-    // Store previous vibe state for each guild
-    private final Map<String, Double> previousVibes = new HashMap<>();
+    @Value("${tone.vibe.alert-parallelism:8}")
+    private int alertParallelism;
+    
+    @Value("${tone.vibe.alert-mode:STREAMING}")
+    private AlertMode alertMode;
+    
+    // Store previous vibe state for each guild; written concurrently by the evaluation workers
+    private final Map<String, Double> previousVibes = new ConcurrentHashMap<>();
+    
+    // Settings lookups and Discord sends run here, off the ingestion and polling threads
+    private ExecutorService alertExecutor;
 
-    public VibeAlertService(DiscordMessageRepository messageRepository,
-                           UserSentimentSummaryRepository summaryRepository,
+    public VibeAlertService(VibeWindowTracker vibeWindowTracker,
+                           VibeShiftDetector vibeShiftDetector,
+                           GuildSettingsService guildSettingsService,
                            DiscordBotService discordBotService) {
-        this.messageRepository = messageRepository;
-        this.summaryRepository = summaryRepository;
+        this.vibeWindowTracker = vibeWindowTracker;
+        this.vibeShiftDetector = vibeShiftDetector;
+        this.guildSettingsService = guildSettingsService;
         this.discordBotService = discordBotService;
     }
 
-    @Scheduled(fixedRate = 300000) // Check every 5 minutes
-    public void checkVibeShifts() {
+    @PostConstruct
+    public void start() {
+        alertExecutor = Executors.newFixedThreadPool(alertParallelism, new CustomizableThreadFactory("vibe-alert-"));
+        if (alertMode == AlertMode.STREAMING) {
+            vibeShiftDetector.addListener(this::onVibeShift);
+        }
+        logger.info("Vibe alerts running in {} mode", alertMode);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (alertExecutor != null) {
+            alertExecutor.shutdownNow();
+        }
+    }
+
+    private void onVibeShift(VibeShiftDetector.VibeShift shift) {
+        // Called on the aggregate worker that observed the message; the alert must not hold it up
+        try {
+            alertExecutor.execute(() -> sendStreamedAlert(shift));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Alert executor shut down, dropping vibe shift alert for guild {}", shift.guildId());
+        }
+    }
+
+    private void sendStreamedAlert(VibeShiftDetector.VibeShift shift) {
         if (!discordBotService.isConnected()) {
             return;
         }
 
         try {
-            // Get all active guilds
-            summaryRepository.findAll().stream()
-                    .map(summary -> summary.getGuildId())
-                    .distinct()
-                    .forEach(this::checkGuildVibeShift);
+            sendVibeShiftAlert(shift.guildId(), shift.baseline(), shift.current(),
+                    Math.abs(shift.current() - shift.baseline()));
+        } catch (Exception e) {
+            logger.error("Error sending vibe shift alert for guild {}: {}", shift.guildId(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${tone.vibe.alert-interval-ms:300000}") // Check every 5 minutes
+    public void checkVibeShifts() {
+        if (alertMode != AlertMode.POLLING || !discordBotService.isConnected()) {
+            return;
+        }
+
+        try {
+            // Only guilds with new messages since the last tick can have shifted
+            List<String> activeGuilds = vibeWindowTracker.drainActiveGuilds();
+            CompletableFuture.allOf(activeGuilds.stream()
+                            .map(guildId -> CompletableFuture.runAsync(() -> checkGuildVibeShift(guildId),
+                                    alertExecutor))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+            logger.debug("Checked vibe shifts for {} active guilds", activeGuilds.size());
         } catch (Exception e) {
             logger.error("Error checking vibe shifts", e);
         }
@@ -55,8 +120,7 @@ public class VibeAlertService {
     private void checkGuildVibeShift(String guildId) {
         try {
             // Get current vibe (last 30 minutes)
-            LocalDateTime thirtyMinutesAgo = LocalDateTime.now().minusMinutes(30);
-            Double currentVibe = messageRepository.getAverageSentimentSince(guildId, thirtyMinutesAgo);
+            Double currentVibe = vibeWindowTracker.getRecentAverage(guildId, Duration.ofMinutes(30));
             
             if (currentVibe == null) {
                 return; // Not enough recent activity
@@ -102,9 +166,11 @@ public class VibeAlertService {
                 change,
                 getVibeShiftAdvice(isImproving, currentVibe));
         
-        // For now, we'll assume there's a general channel
-        // In a real implementation, you'd configure alert channels per guild
-        discordBotService.sendVibeAlert(guildId, null, alertMessage);
+        GuildSettings settings = guildSettingsService.getSettings(guildId);
+        if (!settings.getAlertsEnabled()) {
+            return;
+        }
+        discordBotService.sendVibeAlert(guildId, settings.getAlertChannelId(), alertMessage);
         
         logger.info("Sent vibe shift alert for guild {}: {} -> {} ({})", 
                    guildId, previousVibe, currentVibe, direction);
@@ -0,0 +1,122 @@
+package com.tonediscord.tone.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Two-sided CUSUM over each guild's (or channel's) score stream, measured against a slow EWMA baseline
+@Service
+public class VibeShiftDetector {
+
+    public record VibeShift(String guildId, String channelId, double baseline, double current) {}
+
+    @FunctionalInterface
+    public interface VibeShiftListener {
+        void onVibeShift(VibeShift shift);
+    }
+
+    private final ConcurrentHashMap<StreamKey, StreamState> streams = new ConcurrentHashMap<>();
+    private final List<VibeShiftListener> listeners = new CopyOnWriteArrayList<>();
+    private final Counter shiftCounter;
+
+    @Value("${tone.vibe.detector.per-channel:false}")
+    private boolean perChannel;
+
+    // Smoothing for the reported "current" vibe
+    @Value("${tone.vibe.detector.fast-alpha:0.2}")
+    private double fastAlpha;
+
+    // Smoothing for the baseline the CUSUM measures drift against
+    @Value("${tone.vibe.detector.baseline-alpha:0.005}")
+    private double baselineAlpha;
+
+    // Per-message deviation that is treated as noise (CUSUM k)
+    @Value("${tone.vibe.detector.slack:0.4}")
+    private double slack;
+
+    // Accumulated deviation that counts as a shift (CUSUM h)
+    @Value("${tone.vibe.detector.threshold:6.0}")
+    private double threshold;
+
+    @Value("${tone.vibe.detector.min-samples:30}")
+    private int minSamples;
+
+    @Value("${tone.vibe.detector.debounce:10m}")
+    private Duration debounce;
+
+    public VibeShiftDetector(MeterRegistry meterRegistry) {
+        this.shiftCounter = meterRegistry.counter("tone.vibe.shifts.detected");
+    }
+
+    public void addListener(VibeShiftListener listener) {
+        listeners.add(listener);
+    }
+
+    public void observe(String guildId, String channelId, double score) {
+        observe(guildId, channelId, score, System.nanoTime());
+    }
+
+    void observe(String guildId, String channelId, double score, long nowNanos) {
+        StreamKey key = new StreamKey(guildId, perChannel ? channelId : null);
+        StreamState state = streams.computeIfAbsent(key, k -> new StreamState());
+
+        VibeShift shift;
+        synchronized (state) {
+            shift = state.update(key, score, nowNanos);
+        }
+        if (shift != null) {
+            shiftCounter.increment();
+            listeners.forEach(listener -> listener.onVibeShift(shift));
+        }
+    }
+
+    private record StreamKey(String guildId, String channelId) {}
+
+    // Guarded by its own monitor; a handful of arithmetic ops per message
+    private class StreamState {
+        private long samples;
+        private long warmup;
+        private double fast;
+        private double baseline;
+        private double upper;
+        private double lower;
+        private long lastShiftNanos = Long.MIN_VALUE;
+
+        VibeShift update(StreamKey key, double score, long nowNanos) {
+            fast = samples++ == 0 ? score : fast + fastAlpha * (score - fast);
+
+            if (warmup < minSamples) {
+                // Plain running mean until the baseline has enough samples to be trusted
+                baseline += (score - baseline) / ++warmup;
+                return null;
+            }
+
+            upper = Math.max(0, upper + score - baseline - slack);
+            lower = Math.max(0, lower + baseline - score - slack);
+            baseline += baselineAlpha * (score - baseline);
+
+            if (upper < threshold && lower < threshold) {
+                return null;
+            }
+
+            VibeShift shift = new VibeShift(key.guildId(), key.channelId(), baseline, fast);
+            // Relearn the baseline at the new level so a sustained shift is reported once, not on every message
+            upper = 0;
+            lower = 0;
+            baseline = 0;
+            warmup = 0;
+
+            if (lastShiftNanos != Long.MIN_VALUE && nowNanos - lastShiftNanos < debounce.toNanos()) {
+                return null;
+            }
+            lastShiftNanos = nowNanos;
+            return shift;
+        }
+    }
+}
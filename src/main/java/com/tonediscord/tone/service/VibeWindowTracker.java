@@ -0,0 +1,140 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.MinuteBucket;
+import com.tonediscord.tone.repository.DiscordMessageRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-guild ring buffer of per-minute sentiment totals, so recent averages never touch the database
+@Service
+public class VibeWindowTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(VibeWindowTracker.class);
+
+    private final DiscordMessageRepository messageRepository;
+    private final ConcurrentHashMap<String, GuildWindow> windows = new ConcurrentHashMap<>();
+    // Guilds that received a scored message since the last drainActiveGuilds(); only polled alerts drain it
+    private final Set<String> activeGuilds = ConcurrentHashMap.newKeySet();
+    private final boolean trackActiveGuilds;
+    private final int windowMinutes;
+
+    public VibeWindowTracker(DiscordMessageRepository messageRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${tone.vibe.window-minutes:360}") int windowMinutes,
+                             @Value("${tone.vibe.alert-mode:STREAMING}") VibeAlertService.AlertMode alertMode) {
+        this.messageRepository = messageRepository;
+        this.trackActiveGuilds = alertMode == VibeAlertService.AlertMode.POLLING;
+        this.windowMinutes = windowMinutes;
+        Gauge.builder("tone.vibe.tracked.guilds", windows, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        try {
+            List<MinuteBucket> buckets = messageRepository.findMinuteBuckets(now().minusMinutes(windowMinutes));
+            buckets.forEach(bucket -> window(bucket.guildId())
+                    .add(epochMinute(bucket.minute()), bucket.sentimentSum(), bucket.messageCount()));
+            logger.info("Warmed vibe windows for {} guilds from {} minute buckets", windows.size(), buckets.size());
+        } catch (Exception e) {
+            logger.warn("Could not warm vibe windows from database: {}", e.getMessage());
+        }
+    }
+
+    public void record(String guildId, LocalDateTime timestamp, double score) {
+        long minute = epochMinute(timestamp);
+        if (minute > epochMinute(now()) - windowMinutes) {
+            window(guildId).add(minute, score, 1);
+        }
+        if (trackActiveGuilds) {
+            activeGuilds.add(guildId);
+        }
+    }
+
+    public List<String> drainActiveGuilds() {
+        List<String> drained = new ArrayList<>(activeGuilds.size());
+        for (String guildId : activeGuilds) {
+            if (activeGuilds.remove(guildId)) {
+                drained.add(guildId);
+            }
+        }
+        return drained;
+    }
+
+    // Same contract as DiscordMessageRepository.getAverageSentimentSince: null when there is no activity
+    public Double getRecentAverage(String guildId, Duration period) {
+        long minutes = period.toMinutes();
+        if (minutes > windowMinutes) {
+            // Older than the ring buffer keeps, so ask the database
+            return messageRepository.getAverageSentimentSince(guildId, now().minus(period));
+        }
+
+        GuildWindow window = windows.get(guildId);
+        return window != null ? window.average(epochMinute(now()) - minutes + 1) : null;
+    }
+
+    private GuildWindow window(String guildId) {
+        return windows.computeIfAbsent(guildId, id -> new GuildWindow(windowMinutes));
+    }
+
+    private static LocalDateTime now() {
+        // Message timestamps are stored in UTC
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    private static long epochMinute(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    // Slot i holds the totals for whichever minute last mapped to it; stale slots are recognized by their stamp
+    private static class GuildWindow {
+        private final long[] minutes;
+        private final double[] sums;
+        private final long[] counts;
+
+        GuildWindow(int size) {
+            this.minutes = new long[size];
+            this.sums = new double[size];
+            this.counts = new long[size];
+        }
+
+        synchronized void add(long minute, double sum, long count) {
+            int slot = (int) Math.floorMod(minute, (long) minutes.length);
+            if (minutes[slot] != minute) {
+                if (minutes[slot] > minute) {
+                    return; // slot already reused by a newer minute
+                }
+                minutes[slot] = minute;
+                sums[slot] = 0;
+                counts[slot] = 0;
+            }
+            sums[slot] += sum;
+            counts[slot] += count;
+        }
+
+        synchronized Double average(long fromMinute) {
+            double sum = 0;
+            long count = 0;
+            for (int slot = 0; slot < minutes.length; slot++) {
+                if (minutes[slot] >= fromMinute) {
+                    sum += sums[slot];
+                    count += counts[slot];
+                }
+            }
+            return count > 0 ? sum / count : null;
+        }
+    }
+}
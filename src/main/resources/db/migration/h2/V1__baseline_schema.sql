@@ -0,0 +1,50 @@
+CREATE SEQUENCE discord_messages_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE discord_messages (
+    id BIGINT NOT NULL,
+    discord_message_id VARCHAR(255) NOT NULL,
+    channel_id VARCHAR(255) NOT NULL,
+    channel_name VARCHAR(255),
+    guild_id VARCHAR(255) NOT NULL,
+    guild_name VARCHAR(255),
+    user_id VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    display_name VARCHAR(255),
+    message_content TEXT,
+    sentiment_score FLOAT(53),
+    sentiment_label VARCHAR(255),
+    timestamp TIMESTAMP(6) NOT NULL,
+    processed BOOLEAN NOT NULL,
+    claimed_until TIMESTAMP(6),
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_discord_messages_discord_message_id UNIQUE (discord_message_id)
+);
+
+CREATE TABLE user_sentiment_summary (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    guild_id VARCHAR(255) NOT NULL,
+    total_messages INTEGER NOT NULL,
+    positive_messages INTEGER NOT NULL,
+    negative_messages INTEGER NOT NULL,
+    neutral_messages INTEGER NOT NULL,
+    sentiment_sum FLOAT(53) DEFAULT 0.0 NOT NULL,
+    average_sentiment FLOAT(53) NOT NULL,
+    most_positive_score FLOAT(53),
+    most_negative_score FLOAT(53),
+    last_updated TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_sentiment_summary_user_guild UNIQUE (user_id, guild_id)
+);
+
+CREATE TABLE sentiment_cache (
+    cache_key VARCHAR(16) NOT NULL,
+    cleaned_text TEXT NOT NULL,
+    sentiment_label VARCHAR(255) NOT NULL,
+    sentiment_score FLOAT(53) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (cache_key)
+);
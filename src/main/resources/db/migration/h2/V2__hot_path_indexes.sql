@@ -0,0 +1,15 @@
+-- H2 has no partial indexes, so the backlog index covers both processed states
+CREATE INDEX idx_discord_messages_processed_id ON discord_messages (processed, id);
+
+-- Time-window reads: vibe checks, history and the vibe alert sweep
+CREATE INDEX idx_discord_messages_guild_timestamp ON discord_messages (guild_id, timestamp);
+
+-- Most positive / most negative message lookups
+CREATE INDEX idx_discord_messages_guild_score ON discord_messages (guild_id, sentiment_score);
+
+-- Per-user message counts
+CREATE INDEX idx_discord_messages_user_guild ON discord_messages (user_id, guild_id);
+
+-- Leaderboards; (user_id, guild_id) lookups are already served by the unique constraint
+CREATE INDEX idx_user_sentiment_summary_guild_average ON user_sentiment_summary (guild_id, average_sentiment);
+CREATE INDEX idx_user_sentiment_summary_guild_total ON user_sentiment_summary (guild_id, total_messages);
@@ -0,0 +1,17 @@
+CREATE TABLE sentiment_rollup (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    granularity VARCHAR(8) NOT NULL,
+    scope VARCHAR(8) NOT NULL,
+    guild_id VARCHAR(255) NOT NULL,
+    scope_id VARCHAR(255) NOT NULL,
+    bucket_start TIMESTAMP(6) NOT NULL,
+    message_count BIGINT NOT NULL,
+    positive_messages BIGINT NOT NULL,
+    negative_messages BIGINT NOT NULL,
+    neutral_messages BIGINT NOT NULL,
+    sentiment_sum FLOAT(53) NOT NULL,
+    last_updated TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    -- Doubles as the index for series reads: equality on the first four columns, range on bucket_start
+    CONSTRAINT uk_sentiment_rollup_bucket UNIQUE (granularity, scope, guild_id, scope_id, bucket_start)
+);
@@ -0,0 +1,7 @@
+CREATE TABLE guild_settings (
+    guild_id VARCHAR(255) NOT NULL,
+    alert_channel_id VARCHAR(255),
+    alerts_enabled BOOLEAN DEFAULT TRUE NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (guild_id)
+);
@@ -0,0 +1,15 @@
+-- One row per channel: high_water_message_id is the newest message covered by a finished backfill,
+-- run_* track a backfill in progress so it can resume where it stopped
+CREATE TABLE backfill_checkpoints (
+    channel_id VARCHAR(255) NOT NULL,
+    guild_id VARCHAR(255) NOT NULL,
+    high_water_message_id BIGINT,
+    run_top_message_id BIGINT,
+    run_cursor_message_id BIGINT,
+    messages_imported BIGINT DEFAULT 0 NOT NULL,
+    last_completed_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (channel_id)
+);
+
+CREATE INDEX idx_backfill_checkpoints_guild ON backfill_checkpoints (guild_id);
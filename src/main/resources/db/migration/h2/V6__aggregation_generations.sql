@@ -0,0 +1,10 @@
+-- One counter per write-behind aggregate. Deltas are tagged with the generation current when their message was
+-- marked processed; a rebuild bumps it, and deltas from an older generation are dropped instead of flushed
+CREATE TABLE aggregation_generations (
+    name VARCHAR(32) NOT NULL,
+    generation BIGINT NOT NULL,
+    PRIMARY KEY (name)
+);
+
+INSERT INTO aggregation_generations (name, generation) VALUES ('summary', 0);
+INSERT INTO aggregation_generations (name, generation) VALUES ('rollup', 0);
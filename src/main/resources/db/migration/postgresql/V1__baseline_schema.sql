@@ -0,0 +1,79 @@
+-- Written to be safe against databases previously managed by ddl-auto: update,
+-- so existing deployments can adopt migrations without a manual baseline
+
+CREATE SEQUENCE IF NOT EXISTS discord_messages_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE discord_messages_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS discord_messages (
+    id BIGINT NOT NULL,
+    discord_message_id VARCHAR(255) NOT NULL,
+    channel_id VARCHAR(255) NOT NULL,
+    channel_name VARCHAR(255),
+    guild_id VARCHAR(255) NOT NULL,
+    guild_name VARCHAR(255),
+    user_id VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    display_name VARCHAR(255),
+    message_content TEXT,
+    sentiment_score DOUBLE PRECISION,
+    sentiment_label VARCHAR(255),
+    timestamp TIMESTAMP(6) NOT NULL,
+    processed BOOLEAN NOT NULL,
+    claimed_until TIMESTAMP(6),
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_discord_messages_discord_message_id UNIQUE (discord_message_id)
+);
+
+ALTER TABLE discord_messages ADD COLUMN IF NOT EXISTS claimed_until TIMESTAMP(6);
+
+-- Ids used to come from an identity column; move the sequence past them
+SELECT setval('discord_messages_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM discord_messages) + 50, 1));
+
+CREATE TABLE IF NOT EXISTS user_sentiment_summary (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    guild_id VARCHAR(255) NOT NULL,
+    total_messages INTEGER NOT NULL,
+    positive_messages INTEGER NOT NULL,
+    negative_messages INTEGER NOT NULL,
+    neutral_messages INTEGER NOT NULL,
+    sentiment_sum DOUBLE PRECISION NOT NULL DEFAULT 0.0,
+    average_sentiment DOUBLE PRECISION NOT NULL,
+    most_positive_score DOUBLE PRECISION,
+    most_negative_score DOUBLE PRECISION,
+    last_updated TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'user_sentiment_summary' AND column_name = 'sentiment_sum') THEN
+        ALTER TABLE user_sentiment_summary ADD COLUMN sentiment_sum DOUBLE PRECISION NOT NULL DEFAULT 0.0;
+    END IF;
+    -- Also covers a column that Hibernate's schema update already added at its 0.0 default
+    UPDATE user_sentiment_summary SET sentiment_sum = average_sentiment * total_messages
+    WHERE sentiment_sum = 0 AND average_sentiment <> 0;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_user_sentiment_summary_user_guild') THEN
+        -- Racing read-modify-write updates could leave more than one row per user; keep the busiest
+        DELETE FROM user_sentiment_summary a
+        USING user_sentiment_summary b
+        WHERE a.user_id = b.user_id AND a.guild_id = b.guild_id
+          AND (a.total_messages < b.total_messages OR (a.total_messages = b.total_messages AND a.id < b.id));
+        ALTER TABLE user_sentiment_summary
+            ADD CONSTRAINT uk_user_sentiment_summary_user_guild UNIQUE (user_id, guild_id);
+    END IF;
+END $$;
+
+CREATE TABLE IF NOT EXISTS sentiment_cache (
+    cache_key VARCHAR(16) NOT NULL,
+    cleaned_text TEXT NOT NULL,
+    sentiment_label VARCHAR(255) NOT NULL,
+    sentiment_score DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (cache_key)
+);
@@ -0,0 +1,25 @@
+-- CONCURRENTLY keeps discord_messages writable while the indexes build; it cannot run inside a transaction, so this
+-- migration runs without one (see the .conf file). A failed build leaves an INVALID index that IF NOT EXISTS would
+-- skip on the next attempt, so drop it before re-running.
+
+-- Backlog drain: keyset scan over unprocessed ids only, stays tiny while the table grows
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_discord_messages_unprocessed
+    ON discord_messages (id) WHERE processed = false;
+
+-- Time-window reads (vibe checks, history, the vibe alert sweep) answered from the index alone
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_discord_messages_guild_timestamp
+    ON discord_messages (guild_id, timestamp) INCLUDE (sentiment_score, processed);
+
+-- Most positive / most negative message lookups
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_discord_messages_guild_score
+    ON discord_messages (guild_id, sentiment_score) WHERE sentiment_score IS NOT NULL;
+
+-- Per-user message counts
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_discord_messages_user_guild
+    ON discord_messages (user_id, guild_id) WHERE processed = true;
+
+-- Leaderboards; (user_id, guild_id) lookups are already served by the unique constraint
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_sentiment_summary_guild_average
+    ON user_sentiment_summary (guild_id, average_sentiment);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_sentiment_summary_guild_total
+    ON user_sentiment_summary (guild_id, total_messages);
@@ -0,0 +1,33 @@
+CREATE TABLE sentiment_rollup (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    granularity VARCHAR(8) NOT NULL,
+    scope VARCHAR(8) NOT NULL,
+    guild_id VARCHAR(255) NOT NULL,
+    scope_id VARCHAR(255) NOT NULL,
+    bucket_start TIMESTAMP(6) NOT NULL,
+    message_count BIGINT NOT NULL,
+    positive_messages BIGINT NOT NULL,
+    negative_messages BIGINT NOT NULL,
+    neutral_messages BIGINT NOT NULL,
+    sentiment_sum DOUBLE PRECISION NOT NULL,
+    last_updated TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    -- Doubles as the index for series reads: equality on the first four columns, range on bucket_start
+    CONSTRAINT uk_sentiment_rollup_bucket UNIQUE (granularity, scope, guild_id, scope_id, bucket_start)
+);
+
+-- Messages processed before this migration are not in any bucket yet
+INSERT INTO sentiment_rollup (granularity, scope, guild_id, scope_id, bucket_start, message_count,
+    positive_messages, negative_messages, neutral_messages, sentiment_sum, last_updated)
+SELECT g.granularity, s.scope, m.guild_id,
+    CASE s.scope WHEN 'GUILD' THEN m.guild_id WHEN 'CHANNEL' THEN m.channel_id ELSE m.user_id END,
+    DATE_TRUNC(g.granularity, m.timestamp), COUNT(*),
+    SUM(CASE WHEN m.sentiment_label = 'POSITIVE' THEN 1 ELSE 0 END),
+    SUM(CASE WHEN m.sentiment_label = 'NEGATIVE' THEN 1 ELSE 0 END),
+    SUM(CASE WHEN m.sentiment_label IN ('POSITIVE', 'NEGATIVE') THEN 0 ELSE 1 END),
+    SUM(m.sentiment_score), CURRENT_TIMESTAMP
+FROM discord_messages m
+CROSS JOIN (VALUES ('HOUR'), ('DAY')) AS g(granularity)
+CROSS JOIN (VALUES ('GUILD'), ('CHANNEL'), ('USER')) AS s(scope)
+WHERE m.processed = true AND m.sentiment_score IS NOT NULL
+GROUP BY 1, 2, 3, 4, 5;
@@ -0,0 +1,48 @@
+package com.tonediscord.tone.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdminTokenInterceptorTest {
+
+    @Test
+    void disablesAdminRoutesWhenNoTokenIsConfigured() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean allowed = new AdminTokenInterceptor("").preHandle(request("Bearer "), response, null);
+
+        assertThat(allowed).isFalse();
+        assertThat(response.getStatus()).isEqualTo(403);
+    }
+
+    @Test
+    void rejectsAMissingOrWrongToken() throws Exception {
+        AdminTokenInterceptor interceptor = new AdminTokenInterceptor("s3cret");
+
+        for (String authorization : new String[]{null, "s3cret", "Basic s3cret", "Bearer s3cre", "Bearer s3cret2"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            assertThat(interceptor.preHandle(request(authorization), response, null)).isFalse();
+            assertThat(response.getStatus()).isEqualTo(401);
+        }
+    }
+
+    @Test
+    void acceptsTheConfiguredBearerToken() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(new AdminTokenInterceptor("s3cret").preHandle(request("Bearer s3cret"), response, null)).isTrue();
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/tone/admin/rollups/rebuild");
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return request;
+    }
+}
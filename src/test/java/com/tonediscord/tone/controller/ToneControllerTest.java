@@ -0,0 +1,278 @@
+package com.tonediscord.tone.controller;
+
+import com.tonediscord.tone.dto.GuildStats;
+import com.tonediscord.tone.repository.DiscordMessageRepository;
+import com.tonediscord.tone.repository.SentimentRollupRepository;
+import com.tonediscord.tone.repository.UserSentimentSummaryRepository;
+import com.tonediscord.tone.service.DiscordBotService;
+import com.tonediscord.tone.service.GuildResponseCache;
+import com.tonediscord.tone.service.HistoryBackfillService;
+import com.tonediscord.tone.service.SentimentAnalysisService;
+import com.tonediscord.tone.service.SentimentRollupAggregator;
+import com.tonediscord.tone.service.VibeWindowTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.dv8tion.jda.api.entities.Guild;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ToneController.class)
+@Import({GuildResponseCache.class, ToneControllerTest.Metrics.class})
+@TestPropertySource(properties = {
+        "tone.api.max-limit=50",
+        "tone.api.max-history-days=30",
+        "tone.vibe.window-minutes=180",
+        "tone.api.admin-token=" + ToneControllerTest.ADMIN_TOKEN
+})
+class ToneControllerTest {
+
+    static final String ADMIN_TOKEN = "test-admin-token";
+    static final String DASHBOARD_ORIGIN = "https://dashboard.example";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GuildResponseCache responseCache;
+
+    @MockBean
+    private DiscordMessageRepository messageRepository;
+
+    @MockBean
+    private UserSentimentSummaryRepository summaryRepository;
+
+    @MockBean
+    private SentimentAnalysisService sentimentService;
+
+    @MockBean
+    private SentimentRollupRepository rollupRepository;
+
+    @MockBean
+    private SentimentRollupAggregator rollupAggregator;
+
+    @MockBean
+    private VibeWindowTracker vibeWindowTracker;
+
+    @MockBean
+    private HistoryBackfillService backfillService;
+
+    @MockBean
+    private DiscordBotService discordBotService;
+
+    @Test
+    void leaderboardPassesTheRequestedLimitToEveryQuery() throws Exception {
+        mockMvc.perform(get("/api/v1/tone/guilds/g1/leaderboard").param("limit", "7"))
+                .andExpect(status().isOk());
+
+        verify(summaryRepository).findMeanestUsers(eq("g1"), argThat(pageOf(7)));
+        verify(summaryRepository).findMostPositiveUsers(eq("g1"), argThat(pageOf(7)));
+        verify(summaryRepository).findMostActiveUsers(eq("g1"), argThat(pageOf(7)));
+    }
+
+    @Test
+    void leaderboardCapsTheLimitAtTheConfiguredMaximum() throws Exception {
+        mockMvc.perform(get("/api/v1/tone/guilds/g1/leaderboard").param("limit", "1000000"))
+                .andExpect(status().isOk());
+
+        verify(summaryRepository).findMeanestUsers(eq("g1"), argThat(pageOf(50)));
+    }
+
+    @Test
+    void leaderboardAsksForAtLeastOneRow() throws Exception {
+        mockMvc.perform(get("/api/v1/tone/guilds/g1/leaderboard").param("limit", "-3"))
+                .andExpect(status().isOk());
+
+        verify(summaryRepository).findMeanestUsers(eq("g1"), argThat(pageOf(1)));
+    }
+
+    @Test
+    void extremeMessagesDefaultToFiveAndAreCapped() throws Exception {
+        mockMvc.perform(get("/api/v1/tone/guilds/g1/extreme-messages"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/tone/guilds/g2/extreme-messages").param("limit", "500"))
+                .andExpect(status().isOk());
+
+        verify(messageRepository).findMostPositiveMessages(eq("g1"), argThat(pageOf(5)));
+        verify(messageRepository).findMostNegativeMessages(eq("g1"), argThat(pageOf(5)));
+        verify(messageRepository).findMostPositiveMessages(eq("g2"), argThat(pageOf(50)));
+    }
+
+    @Test
+    void statsAnswerNotModifiedForAMatchingETag() throws Exception {
+        when(summaryRepository.getGuildStats("etag-guild")).thenReturn(new GuildStats(3, 10, 6, 2, 2, 1.5));
+
+        String etag = mockMvc.perform(get("/api/v1/tone/guilds/etag-guild/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/v1/tone/guilds/etag-guild/stats").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        assertThat(etag).matches("\"[0-9a-f]{64}\"");
+        verify(summaryRepository, times(1)).getGuildStats("etag-guild");
+    }
+
+    @Test
+    void statsReloadOnlyWhenTheSummaryGroupIsInvalidated() throws Exception {
+        when(summaryRepository.getGuildStats("flushed-guild")).thenReturn(new GuildStats(3, 10, 6, 2, 2, 1.5));
+        String etag = mockMvc.perform(get("/api/v1/tone/guilds/flushed-guild/stats"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // A rollup flush leaves stats alone
+        responseCache.invalidate(GuildResponseCache.Group.ROLLUP, "flushed-guild");
+        mockMvc.perform(get("/api/v1/tone/guilds/flushed-guild/stats").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(summaryRepository, times(1)).getGuildStats("flushed-guild");
+
+        when(summaryRepository.getGuildStats("flushed-guild")).thenReturn(new GuildStats(3, 11, 7, 2, 2, 2.5));
+        responseCache.invalidate(GuildResponseCache.Group.SUMMARY, "flushed-guild");
+        mockMvc.perform(get("/api/v1/tone/guilds/flushed-guild/stats").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.totalMessages").value(11));
+        verify(summaryRepository, times(2)).getGuildStats("flushed-guild");
+    }
+
+    @Test
+    void adminRoutesRejectRequestsWithoutTheToken() throws Exception {
+        mockMvc.perform(post("/api/v1/tone/admin/rollups/rebuild"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+        mockMvc.perform(post("/api/v1/tone/admin/rollups/rebuild")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer wrong-token"))
+                .andExpect(status().isUnauthorized());
+
+        verify(rollupAggregator, never()).rebuild();
+    }
+
+    @Test
+    void adminRoutesAcceptTheConfiguredToken() throws Exception {
+        mockMvc.perform(post("/api/v1/tone/admin/rollups/rebuild")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN))
+                .andExpect(status().isOk());
+
+        verify(rollupAggregator).rebuild();
+    }
+
+    @Test
+    void backfillRoutesRequireTheToken() throws Exception {
+        mockMvc.perform(post("/api/v1/tone/admin/guilds/g1/backfill"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/v1/tone/admin/guilds/g1/backfill")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer wrong-token"))
+                .andExpect(status().isUnauthorized());
+
+        verify(discordBotService, never()).getGuild(anyString());
+        verify(backfillService, never()).startBackfill(any());
+        verify(backfillService, never()).getProgress(anyString());
+    }
+
+    @Test
+    void backfillStartsWithTheConfiguredToken() throws Exception {
+        Guild guild = mock(Guild.class);
+        when(discordBotService.getGuild("g1")).thenReturn(guild);
+
+        mockMvc.perform(post("/api/v1/tone/admin/guilds/g1/backfill")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/api/v1/tone/admin/guilds/unknown/backfill")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN))
+                .andExpect(status().isNotFound());
+
+        verify(backfillService).startBackfill(guild);
+    }
+
+    @Test
+    void readEndpointsAreOpenToAnyOriginByDefault() throws Exception {
+        mockMvc.perform(options("/api/v1/tone/guilds/g1/stats")
+                        .header(HttpHeaders.ORIGIN, DASHBOARD_ORIGIN)
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*"));
+    }
+
+    @Test
+    void adminRoutesAreNotSharedCrossOrigin() throws Exception {
+        mockMvc.perform(post("/api/v1/tone/admin/rollups/rebuild")
+                        .header(HttpHeaders.ORIGIN, DASHBOARD_ORIGIN)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + ADMIN_TOKEN))
+                .andExpect(header().doesNotExist(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+
+        mockMvc.perform(options("/api/v1/tone/admin/rollups/rebuild")
+                        .header(HttpHeaders.ORIGIN, DASHBOARD_ORIGIN)
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "POST"))
+                .andExpect(header().doesNotExist(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+    }
+
+    @Test
+    void sentimentHistoryClampsTheDaysToTheConfiguredRange() throws Exception {
+        mockMvc.perform(get("/api/v1/tone/guilds/g1/sentiment-history").param("days", "1000000000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.daysCovered").value(30));
+        mockMvc.perform(get("/api/v1/tone/guilds/g2/sentiment-history").param("days", "-5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.daysCovered").value(1));
+        // Out-of-range requests share the clamped cache entry rather than each adding their own
+        mockMvc.perform(get("/api/v1/tone/guilds/g1/sentiment-history").param("days", "999"))
+                .andExpect(status().isOk());
+
+        verify(rollupRepository, times(2)).findSeries(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void recentVibeClampsTheHoursToTheInMemoryWindow() throws Exception {
+        mockMvc.perform(get("/api/v1/tone/guilds/g1/recent-vibe").param("hours", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hoursCovered").value(3));
+        mockMvc.perform(get("/api/v1/tone/guilds/g2/recent-vibe").param("hours", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hoursCovered").value(1));
+
+        verify(vibeWindowTracker).getRecentAverage("g1", Duration.ofHours(3));
+        verify(vibeWindowTracker).getRecentAverage("g2", Duration.ofHours(1));
+    }
+
+    private static ArgumentMatcher<Pageable> pageOf(int size) {
+        return pageable -> pageable.getPageNumber() == 0 && pageable.getPageSize() == size;
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.entity.DiscordMessage;
+import org.flywaydb.core.Flyway;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Sustained insert rate of insertIgnoringDuplicates against the per-message existence check plus single-row insert
+// it replaced, on the H2 migrations. Each batch replays one in BATCH / DUPLICATE_EVERY messages, like a gateway resume.
+// "tcp" goes through a loopback H2 server so every statement pays a round trip, as it does against PostgreSQL.
+// mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+// java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main DiscordMessageInsertBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class DiscordMessageInsertBenchmark {
+
+    private static final int BATCH = 200;
+    private static final int DUPLICATE_EVERY = 20;
+
+    private static final String EXISTS = "SELECT COUNT(*) FROM discord_messages WHERE discord_message_id = ?";
+    private static final String INSERT = """
+            INSERT INTO discord_messages (id, discord_message_id, channel_id, channel_name, guild_id, guild_name,
+                user_id, username, display_name, message_content, timestamp, processed, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    @Param({"embedded", "tcp"})
+    public String transport;
+
+    private Server server;
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private DiscordMessageRepositoryImpl repository;
+    private long nextDiscordId;
+    private long nextRowId;
+
+    @Setup
+    public void setUp() throws Exception {
+        String url = "jdbc:h2:mem:insert-bench;DB_CLOSE_DELAY=-1";
+        if (transport.equals("tcp")) {
+            server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:insert-bench;DB_CLOSE_DELAY=-1";
+        }
+        dataSource = new SingleConnectionDataSource(url, "sa", "", true);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        repository = new DiscordMessageRepositoryImpl(jdbcTemplate);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.destroy();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int insertIgnoringDuplicates() {
+        List<DiscordMessage> batch = nextBatch();
+        return transactionTemplate.execute(status -> repository.insertIgnoringDuplicates(batch)).size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int checkThenInsertEach() {
+        int inserted = 0;
+        for (DiscordMessage message : nextBatch()) {
+            // One transaction per message, as the old storeMessage had
+            Boolean stored = transactionTemplate.execute(status -> {
+                Long existing = jdbcTemplate.queryForObject(EXISTS, Long.class, message.getDiscordMessageId());
+                if (existing != null && existing > 0) {
+                    return false;
+                }
+                jdbcTemplate.update(INSERT, nextRowId++, message.getDiscordMessageId(), message.getChannelId(),
+                        message.getChannelName(), message.getGuildId(), message.getGuildName(), message.getUserId(),
+                        message.getUsername(), message.getDisplayName(), message.getMessageContent(),
+                        Timestamp.valueOf(message.getTimestamp()), false, Timestamp.valueOf(message.getCreatedAt()));
+                return true;
+            });
+            if (Boolean.TRUE.equals(stored)) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    private List<DiscordMessage> nextBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<DiscordMessage> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            // Replays point back at a message from an earlier batch so they hit the unique index
+            long discordId = i % DUPLICATE_EVERY == 0 && nextDiscordId > BATCH ? nextDiscordId - BATCH : ++nextDiscordId;
+            DiscordMessage message = new DiscordMessage();
+            message.setDiscordMessageId(String.valueOf(discordId));
+            message.setChannelId("channel-" + discordId % 8);
+            message.setChannelName("general");
+            message.setGuildId("guild-" + discordId % 4);
+            message.setGuildName("bench");
+            message.setUserId("user-" + discordId % 500);
+            message.setUsername("user");
+            message.setMessageContent("anyone up for ranked tonight");
+            message.setTimestamp(now);
+            message.setProcessed(false);
+            message.setCreatedAt(now);
+            batch.add(message);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,113 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.entity.DiscordMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class DiscordMessageRepositoryTest {
+
+    @Autowired
+    private DiscordMessageRepository messageRepository;
+
+    @Test
+    void insertsNewMessagesWithDistinctIds() {
+        List<DiscordMessage> inserted = messageRepository.insertIgnoringDuplicates(
+                List.of(message("1", "first"), message("2", "second")));
+
+        assertThat(inserted).extracting(DiscordMessage::getDiscordMessageId).containsExactly("1", "2");
+        assertThat(inserted).extracting(DiscordMessage::getId).doesNotHaveDuplicates().doesNotContainNull();
+        assertThat(messageRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void collapsesDuplicateDiscordIdsWithinABatch() {
+        List<DiscordMessage> inserted = messageRepository.insertIgnoringDuplicates(
+                List.of(message("1", "original"), message("1", "gateway replay"), message("2", "other")));
+
+        assertThat(inserted).extracting(DiscordMessage::getMessageContent).containsExactly("original", "other");
+        assertThat(messageRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void skipsMessagesThatAreAlreadyStored() {
+        messageRepository.insertIgnoringDuplicates(List.of(message("1", "original")));
+
+        List<DiscordMessage> inserted = messageRepository.insertIgnoringDuplicates(
+                List.of(message("1", "edited copy"), message("2", "new")));
+
+        assertThat(inserted).extracting(DiscordMessage::getDiscordMessageId).containsExactly("2");
+        assertThat(messageRepository.findAll())
+                .extracting(DiscordMessage::getMessageContent)
+                .containsExactlyInAnyOrder("original", "new");
+    }
+
+    @Test
+    void handlesBatchesLargerThanOneStatement() {
+        List<DiscordMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            batch.add(message(String.valueOf(i), "message " + i));
+        }
+        messageRepository.insertIgnoringDuplicates(batch.subList(0, 300));
+
+        List<DiscordMessage> inserted = messageRepository.insertIgnoringDuplicates(batch);
+
+        assertThat(inserted).hasSize(900);
+        assertThat(messageRepository.count()).isEqualTo(1200);
+    }
+
+    @Test
+    void marksAMessageProcessedOnlyOnce() {
+        DiscordMessage stored = messageRepository.insertIgnoringDuplicates(List.of(message("1", "hello"))).get(0);
+        stored.setSentimentScore(0.5);
+        stored.setSentimentLabel("POSITIVE");
+
+        assertThat(messageRepository.markProcessed(List.of(stored))).containsExactly(stored);
+        assertThat(messageRepository.markProcessed(List.of(stored))).isEmpty();
+    }
+
+    @Test
+    void extremeMessagesAreLimitedAndSkipUnscoredRows() {
+        List<DiscordMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            batch.add(message(String.valueOf(i), "message " + i));
+        }
+        List<DiscordMessage> stored = messageRepository.insertIgnoringDuplicates(batch);
+        // The last two stay unscored
+        for (int i = 0; i < 8; i++) {
+            stored.get(i).setSentimentScore(i / 10.0 - 0.4);
+            stored.get(i).setSentimentLabel("NEUTRAL");
+        }
+        messageRepository.markProcessed(stored.subList(0, 8));
+
+        assertThat(messageRepository.findMostNegativeMessages("guild-1", PageRequest.of(0, 3)))
+                .extracting(DiscordMessage::getDiscordMessageId)
+                .containsExactly("0", "1", "2");
+        assertThat(messageRepository.findMostPositiveMessages("guild-1", PageRequest.of(0, 100)))
+                .extracting(DiscordMessage::getDiscordMessageId)
+                .containsExactly("7", "6", "5", "4", "3", "2", "1", "0");
+    }
+
+    private static DiscordMessage message(String discordId, String content) {
+        DiscordMessage message = new DiscordMessage();
+        message.setDiscordMessageId(discordId);
+        message.setChannelId("channel-1");
+        message.setChannelName("general");
+        message.setGuildId("guild-1");
+        message.setGuildName("Test Guild");
+        message.setUserId("user-1");
+        message.setUsername("user");
+        message.setDisplayName("User");
+        message.setMessageContent(content);
+        message.setTimestamp(LocalDateTime.of(2024, 1, 1, 12, 0));
+        return message;
+    }
+}
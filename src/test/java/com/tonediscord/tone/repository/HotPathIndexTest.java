@@ -0,0 +1,98 @@
+package com.tonediscord.tone.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Guards the V2 indexes against query or schema changes that would quietly turn the hot reads back into scans
+@DataJpaTest
+class HotPathIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        List<Object[]> messages = new ArrayList<>();
+        for (int i = 1; i <= 5000; i++) {
+            Timestamp timestamp = Timestamp.valueOf(START.plusMinutes(i));
+            messages.add(new Object[]{i, "m" + i, "channel-" + (i % 10), "guild-" + (i % 50), "user-" + (i % 500),
+                    "message " + i, timestamp, i % 20 != 0, i % 20 != 0 ? (i % 200) / 100.0 - 1 : null, timestamp});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO discord_messages (id, discord_message_id, channel_id, guild_id, user_id, username,
+                    message_content, timestamp, processed, sentiment_score, created_at)
+                VALUES (?, ?, ?, ?, ?, 'user', ?, ?, ?, ?, ?)
+                """, messages);
+
+        List<Object[]> summaries = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            summaries.add(new Object[]{"user-" + i, "guild-" + (i % 50), i % 300, (i % 200) / 100.0 - 1});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO user_sentiment_summary (user_id, username, guild_id, total_messages, positive_messages,
+                    negative_messages, neutral_messages, sentiment_sum, average_sentiment, last_updated, created_at)
+                VALUES (?, 'user', ?, ?, 0, 0, 0, 0, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                """, summaries);
+    }
+
+    @Test
+    void backlogClaimUsesTheProcessedIndex() {
+        assertThat(plan("""
+                SELECT id FROM discord_messages
+                WHERE processed = false AND id > 0 AND created_at < CURRENT_TIMESTAMP
+                    AND (claimed_until IS NULL OR claimed_until < CURRENT_TIMESTAMP)
+                ORDER BY id FETCH FIRST 200 ROWS ONLY
+                """)).contains("IDX_DISCORD_MESSAGES_PROCESSED_ID");
+    }
+
+    @Test
+    void timeWindowReadsUseTheGuildTimestampIndex() {
+        assertThat(plan("""
+                SELECT AVG(sentiment_score) FROM discord_messages
+                WHERE guild_id = 'guild-7' AND timestamp >= TIMESTAMP '2024-01-03 00:00:00' AND processed = true
+                """)).contains("IDX_DISCORD_MESSAGES_GUILD_TIMESTAMP");
+    }
+
+    @Test
+    void extremeMessageLookupsUseTheGuildScoreIndex() {
+        assertThat(plan("""
+                SELECT id FROM discord_messages
+                WHERE guild_id = 'guild-7' AND sentiment_score IS NOT NULL
+                ORDER BY sentiment_score ASC FETCH FIRST 5 ROWS ONLY
+                """)).contains("IDX_DISCORD_MESSAGES_GUILD_SCORE");
+    }
+
+    @Test
+    void leaderboardsUseTheSummaryIndexes() {
+        assertThat(plan("""
+                SELECT id FROM user_sentiment_summary
+                WHERE guild_id = 'guild-7' ORDER BY average_sentiment ASC FETCH FIRST 10 ROWS ONLY
+                """)).contains("IDX_USER_SENTIMENT_SUMMARY_GUILD_AVERAGE");
+        assertThat(plan("""
+                SELECT id FROM user_sentiment_summary
+                WHERE guild_id = 'guild-7' ORDER BY total_messages DESC FETCH FIRST 10 ROWS ONLY
+                """)).contains("IDX_USER_SENTIMENT_SUMMARY_GUILD_TOTAL");
+    }
+
+    @Test
+    void summaryUpsertsUseTheUniqueKey() {
+        assertThat(plan("SELECT id FROM user_sentiment_summary WHERE user_id = 'user-7' AND guild_id = 'guild-7'"))
+                .contains("UK_USER_SENTIMENT_SUMMARY_USER_GUILD");
+    }
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+    }
+}
@@ -0,0 +1,51 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.entity.SentimentCacheEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+class SentimentCacheEntryRepositoryTest {
+
+    @Autowired
+    private SentimentCacheEntryRepository entryRepository;
+
+    @Test
+    void replaceSnapshotDropsEntriesThatFellOutOfTheHotSet() {
+        entryRepository.replaceSnapshot(List.of(entry("a", "great", 0.9), entry("b", "awful", -0.8)));
+        entryRepository.replaceSnapshot(List.of(entry("b", "awful", -0.7), entry("c", "fine", 0.1)));
+
+        assertThat(entryRepository.findAll())
+                .extracting(SentimentCacheEntry::getCacheKey, SentimentCacheEntry::getSentimentScore)
+                .containsExactlyInAnyOrder(
+                        tuple("b", -0.7),
+                        tuple("c", 0.1));
+    }
+
+    @Test
+    void collidingKeysKeepTheFirstEntry() {
+        entryRepository.replaceSnapshot(List.of(entry("a", "great", 0.9), entry("a", "grand", 0.5)));
+
+        assertThat(entryRepository.findAll())
+                .extracting(SentimentCacheEntry::getCleanedText)
+                .containsExactly("great");
+    }
+
+    @Test
+    void anEmptySnapshotClearsTheTable() {
+        entryRepository.replaceSnapshot(List.of(entry("a", "great", 0.9)));
+        entryRepository.replaceSnapshot(List.of());
+
+        assertThat(entryRepository.count()).isZero();
+    }
+
+    private static SentimentCacheEntry entry(String key, String text, double score) {
+        return new SentimentCacheEntry(key, text, score >= 0 ? "POSITIVE" : "NEGATIVE", score);
+    }
+}
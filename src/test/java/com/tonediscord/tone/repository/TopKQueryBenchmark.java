@@ -0,0 +1,125 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.ToneApplication;
+import com.tonediscord.tone.entity.DiscordMessage;
+import com.tonediscord.tone.entity.UserSentimentSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Leaderboard and extreme-message reads on a seeded million-message guild: the Pageable top-K queries against the
+// unbounded queries they replaced, whose whole result was loaded as entities and then trimmed in Java.
+// mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+// java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main TopKQueryBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class TopKQueryBenchmark {
+
+    private static final String GUILD = "guild-big";
+    private static final int MESSAGES = 1_000_000;
+    private static final int USERS = 50_000;
+    private static final int LIMIT = 5;
+
+    private static final String SEED_MESSAGES = """
+            INSERT INTO discord_messages (id, discord_message_id, channel_id, channel_name, guild_id, guild_name,
+                user_id, username, message_content, sentiment_score, sentiment_label, timestamp, processed, created_at)
+            SELECT X, CAST(X AS VARCHAR), 'channel-' || MOD(X, 20), 'general', ?, 'bench', 'user-' || MOD(X, ?),
+                'user', 'message ' || X, RAND() * 2 - 1, 'NEUTRAL', DATEADD(SECOND, X, TIMESTAMP '2026-01-01 00:00:00'),
+                true, CURRENT_TIMESTAMP
+            FROM SYSTEM_RANGE(1, ?)
+            """;
+
+    private static final String SEED_SUMMARIES = """
+            INSERT INTO user_sentiment_summary (user_id, username, guild_id, total_messages, positive_messages,
+                negative_messages, neutral_messages, sentiment_sum, average_sentiment, last_updated, created_at)
+            SELECT 'user-' || X, 'user', ?, MOD(X * 7919, 1000) + 1, 0, 0, 0, 0, RAND() * 2 - 1,
+                CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM SYSTEM_RANGE(1, ?)
+            """;
+
+    private ConfigurableApplicationContext context;
+    private DiscordMessageRepository messageRepository;
+    private UserSentimentSummaryRepository summaryRepository;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ToneApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN", "spring.jpa.show-sql=false")
+                .run();
+        messageRepository = context.getBean(DiscordMessageRepository.class);
+        summaryRepository = context.getBean(UserSentimentSummaryRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update(SEED_MESSAGES, GUILD, USERS, MESSAGES);
+        jdbcTemplate.update(SEED_SUMMARIES, GUILD, USERS);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<DiscordMessage> extremeMessagesTopK() {
+        return messageRepository.findMostNegativeMessages(GUILD, PageRequest.of(0, LIMIT));
+    }
+
+    @Benchmark
+    public List<DiscordMessage> extremeMessagesUnbounded() {
+        return unbounded("SELECT dm FROM DiscordMessage dm WHERE dm.guildId = :guildId " +
+                "AND dm.sentimentScore IS NOT NULL ORDER BY dm.sentimentScore ASC", DiscordMessage.class);
+    }
+
+    @Benchmark
+    public List<UserSentimentSummary> leaderboardTopK() {
+        return summaryRepository.findMeanestUsers(GUILD, PageRequest.of(0, LIMIT));
+    }
+
+    @Benchmark
+    public List<UserSentimentSummary> leaderboardUnbounded() {
+        return unbounded("SELECT uss FROM UserSentimentSummary uss WHERE uss.guildId = :guildId " +
+                "ORDER BY uss.averageSentiment ASC", UserSentimentSummary.class);
+    }
+
+    private <T> List<T> unbounded(String query, Class<T> type) {
+        // A fresh persistence context per call, as each request had
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery(query, type)
+                    .setParameter("guildId", GUILD)
+                    .getResultList()
+                    .stream()
+                    .limit(LIMIT)
+                    .toList();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.tonediscord.tone.repository;
+
+import com.tonediscord.tone.entity.UserSentimentSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class UserSentimentSummaryRepositoryTest {
+
+    @Autowired
+    private UserSentimentSummaryRepository summaryRepository;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < 20; i++) {
+            // Averages run -0.9 .. 1.0 and message counts 1 .. 20 in the same order
+            summaryRepository.save(summary("user-" + i, "guild-1", i + 1, (i - 9) / 10.0));
+        }
+        summaryRepository.save(summary("outsider", "guild-2", 1000, -1.0));
+    }
+
+    @Test
+    void meanestUsersAreTheLowestAveragesUpToTheLimit() {
+        assertThat(summaryRepository.findMeanestUsers("guild-1", PageRequest.of(0, 3)))
+                .extracting(UserSentimentSummary::getUserId)
+                .containsExactly("user-0", "user-1", "user-2");
+    }
+
+    @Test
+    void mostPositiveUsersAreTheHighestAveragesUpToTheLimit() {
+        assertThat(summaryRepository.findMostPositiveUsers("guild-1", PageRequest.of(0, 2)))
+                .extracting(UserSentimentSummary::getUserId)
+                .containsExactly("user-19", "user-18");
+    }
+
+    @Test
+    void mostActiveUsersStayWithinTheGuild() {
+        assertThat(summaryRepository.findMostActiveUsers("guild-1", PageRequest.of(0, 4)))
+                .extracting(UserSentimentSummary::getTotalMessages)
+                .containsExactly(20, 19, 18, 17);
+    }
+
+    @Test
+    void aLimitAboveTheGuildSizeReturnsEveryone() {
+        assertThat(summaryRepository.findMeanestUsers("guild-1", PageRequest.of(0, 100))).hasSize(20);
+    }
+
+    private static UserSentimentSummary summary(String userId, String guildId, int totalMessages, double average) {
+        UserSentimentSummary summary = new UserSentimentSummary(userId, userId, guildId);
+        summary.setTotalMessages(totalMessages);
+        summary.setAverageSentiment(average);
+        return summary;
+    }
+}
@@ -0,0 +1,96 @@
+package com.tonediscord.tone.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.session.ReadyEvent;
+import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DiscordBotListenerTest {
+
+    private final MessageProcessingService processingService = mock(MessageProcessingService.class);
+    private final MessageIngestionPipeline ingestionPipeline = mock(MessageIngestionPipeline.class);
+    private final GuildSettingsService settingsService = mock(GuildSettingsService.class);
+    private final HistoryBackfillService backfillService = mock(HistoryBackfillService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DiscordBotService botService;
+
+    @BeforeEach
+    void setUp() {
+        botService = new DiscordBotService(mock(SentimentAnalysisService.class), processingService, ingestionPipeline,
+                settingsService, backfillService, meterRegistry);
+    }
+
+    @Test
+    void guildCommandsInADirectMessageAreAnsweredWithoutTouchingTheGuild() {
+        for (String command : new String[] {"stats", "leaderboard", "vibe", "alerts here", "backfill"}) {
+            MessageReceivedEvent event = event("!tone " + command, false);
+
+            botService.onMessageReceived(event);
+
+            verify(event, never()).getGuild();
+            verify(event.getChannel()).sendMessage(contains("only works in a server"));
+        }
+        verifyNoInteractions(processingService, settingsService, backfillService, ingestionPipeline);
+    }
+
+    @Test
+    void guildCommandsInAServerAreRouted() {
+        botService.onMessageReceived(event("!tone stats", true));
+
+        verify(processingService).sendStatsMessage(any());
+    }
+
+    @Test
+    void gatewayPingFollowsAShardAcrossARestart() {
+        ShardManager shardManager = mock(ShardManager.class);
+        ReflectionTestUtils.setField(botService, "shardManager", shardManager);
+        JDA first = shard(0, 40);
+        when(shardManager.getShardById(0)).thenReturn(first);
+        botService.onReady(ready(first));
+
+        JDA restarted = shard(0, 75);
+        when(shardManager.getShardById(0)).thenReturn(restarted);
+        botService.onReady(ready(restarted));
+
+        assertThat(meterRegistry.find("tone.discord.gateway.ping").gauges()).hasSize(1);
+        assertThat(meterRegistry.get("tone.discord.gateway.ping").tag("shard", "0").gauge().value()).isEqualTo(75.0);
+    }
+
+    private static JDA shard(int shardId, long ping) {
+        JDA shard = mock(JDA.class, RETURNS_DEEP_STUBS);
+        when(shard.getShardInfo().getShardId()).thenReturn(shardId);
+        when(shard.getGatewayPing()).thenReturn(ping);
+        return shard;
+    }
+
+    private static ReadyEvent ready(JDA shard) {
+        ReadyEvent event = mock(ReadyEvent.class);
+        when(event.getJDA()).thenReturn(shard);
+        return event;
+    }
+
+    private static MessageReceivedEvent event(String content, boolean fromGuild) {
+        MessageReceivedEvent event = mock(MessageReceivedEvent.class, RETURNS_DEEP_STUBS);
+        when(event.getAuthor().isBot()).thenReturn(false);
+        when(event.getMessage().getContentRaw()).thenReturn(content);
+        when(event.isFromGuild()).thenReturn(fromGuild);
+        when(event.getChannel().sendMessage(anyString())).thenReturn(mock(MessageCreateAction.class));
+        return event;
+    }
+}
@@ -0,0 +1,192 @@
+package com.tonediscord.tone.service;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.requests.RestConfig;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+import net.dv8tion.jda.internal.JDAImpl;
+import net.dv8tion.jda.internal.requests.WebSocketClient;
+import net.dv8tion.jda.internal.utils.config.AuthorizationConfig;
+import net.dv8tion.jda.internal.utils.config.MetaConfig;
+import net.dv8tion.jda.internal.utils.config.SessionConfig;
+import net.dv8tion.jda.internal.utils.config.ThreadingConfig;
+import net.dv8tion.jda.internal.utils.config.flags.ConfigFlag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Loads synthetic GUILD_CREATE payloads into an offline shard configured the way initializeBot configures it
+class DiscordBotServiceTest {
+
+    private static final long SELF_ID = 1L;
+    private static final int GUILDS = 500;
+
+    @Test
+    void leanCacheKeepsOnlyWhatMessagesNeed() {
+        JDAImpl shard = offlineShard(leanBuilder());
+        Guild guild = loadGuild(shard, 1_000_000L);
+
+        assertThat(guild.getTextChannels()).hasSize(24);
+        assertThat(guild.getRoles()).hasSize(20);
+        assertThat(guild.getSelfMember().getIdLong()).isEqualTo(SELF_ID);
+        assertThat(guild.getMemberCache().size()).isEqualTo(1);
+        assertThat(guild.getEmojiCache().isEmpty()).isTrue();
+        assertThat(guild.getStickerCache().isEmpty()).isTrue();
+        // JDA always keeps a voice state for the bot's own member
+        assertThat(guild.getVoiceStates()).allMatch(state -> state.getMember().getIdLong() == SELF_ID);
+    }
+
+    @Test
+    void leanCacheDropsUnusedIntentsButKeepsMessageContent() {
+        int intents = (Integer) ReflectionTestUtils.getField(leanBuilder(), "intents");
+
+        assertThat(GatewayIntent.getIntents(intents))
+                .contains(GatewayIntent.GUILD_MESSAGES, GatewayIntent.MESSAGE_CONTENT)
+                .doesNotContain(GatewayIntent.GUILD_VOICE_STATES, GatewayIntent.GUILD_EMOJIS_AND_STICKERS,
+                        GatewayIntent.GUILD_MESSAGE_REACTIONS, GatewayIntent.GUILD_MESSAGE_TYPING);
+    }
+
+    @Test
+    void leanCacheRetainsLessHeapPerGuild() {
+        // The first round only loads classes and warms the parsers
+        retainedHeap(defaultBuilder());
+        retainedHeap(leanBuilder());
+
+        long full = retainedHeap(defaultBuilder());
+        long lean = retainedHeap(leanBuilder());
+
+        assertThat(lean)
+                .as("retained heap per guild: default %d B, lean %d B", full / GUILDS, lean / GUILDS)
+                .isLessThan(full * 3 / 4);
+    }
+
+    private static DefaultShardManagerBuilder defaultBuilder() {
+        return DefaultShardManagerBuilder.createDefault("token")
+                .enableIntents(GatewayIntent.GUILD_MESSAGES, GatewayIntent.MESSAGE_CONTENT);
+    }
+
+    private static DefaultShardManagerBuilder leanBuilder() {
+        return DiscordBotService.applyLeanCache(defaultBuilder());
+    }
+
+    private static long retainedHeap(DefaultShardManagerBuilder builder) {
+        JDAImpl shard = offlineShard(builder);
+        long before = usedHeap();
+        for (int g = 1; g <= GUILDS; g++) {
+            loadGuild(shard, 1_000_000L * g);
+        }
+        long after = usedHeap();
+        assertThat(shard.getGuildsView().size()).isEqualTo(GUILDS);
+        Reference.reachabilityFence(shard);
+        return after - before;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JDAImpl offlineShard(DefaultShardManagerBuilder builder) {
+        EnumSet<CacheFlag> cacheFlags = (EnumSet<CacheFlag>) ReflectionTestUtils.getField(builder, "cacheFlags");
+        JDAImpl shard = new JDAImpl(new AuthorizationConfig("token"), SessionConfig.getDefault(),
+                new ThreadingConfig(), new MetaConfig(2048, null, cacheFlags, ConfigFlag.getDefault()),
+                new RestConfig());
+        shard.setMemberCachePolicy((MemberCachePolicy) ReflectionTestUtils.getField(builder, "memberCachePolicy"));
+        shard.setChunkingFilter((ChunkingFilter) ReflectionTestUtils.getField(builder, "chunkingFilter"));
+
+        // The shard never connects; the gateway client only has to report the intents the builder would send
+        WebSocketClient client = mock(WebSocketClient.class);
+        when(client.getGatewayIntents()).thenReturn((Integer) ReflectionTestUtils.getField(builder, "intents"));
+        ReflectionTestUtils.setField(shard, "client", client);
+        shard.setSelfUser(shard.getEntityBuilder().createSelfUser(DataObject.empty()
+                .put("id", SELF_ID).put("username", "tone").put("discriminator", "0").put("avatar", null)
+                .put("bot", true).put("verified", true).put("mfa_enabled", false).put("flags", 0)));
+        return shard;
+    }
+
+    private static Guild loadGuild(JDAImpl shard, long guildId) {
+        // Parsed from JSON text, as the gateway handler would see it
+        DataObject guild = DataObject.fromJson(guildCreate(guildId).toString());
+        DataArray memberArray = guild.getArray("members");
+        TLongObjectMap<DataObject> members = new TLongObjectHashMap<>();
+        for (int m = 0; m < memberArray.length(); m++) {
+            members.put(memberArray.getObject(m).getObject("user").getLong("id"), memberArray.getObject(m));
+        }
+        return shard.getEntityBuilder().createGuild(guildId, guild, members, guild.getInt("member_count"));
+    }
+
+    // A mid-sized community: 30 channels, 20 roles, 50 emoji, 5 stickers, and the 100 members and 10 voice states
+    // a large guild's GUILD_CREATE carries before any chunking
+    private static DataObject guildCreate(long guildId) {
+        DataArray roles = DataArray.empty();
+        for (int r = 0; r < 20; r++) {
+            roles.add(DataObject.empty().put("id", r == 0 ? guildId : guildId + 100 + r).put("name", "role " + r)
+                    .put("color", 0).put("hoist", false).put("position", r).put("permissions", "1024")
+                    .put("managed", false).put("mentionable", false));
+        }
+        DataArray channels = DataArray.empty();
+        for (int c = 0; c < 30; c++) {
+            boolean voice = c % 5 == 4;
+            channels.add(DataObject.empty().put("id", guildId + 1000 + c).put("type", voice ? 2 : 0)
+                    .put("name", "channel-" + c).put("position", c).put("permission_overwrites", DataArray.empty())
+                    .put("topic", "topic " + c).put("nsfw", false).put("rate_limit_per_user", 0)
+                    .put("bitrate", 64000).put("user_limit", 0));
+        }
+        DataArray emojis = DataArray.empty();
+        for (int e = 0; e < 50; e++) {
+            emojis.add(DataObject.empty().put("id", guildId + 2000 + e).put("name", "emoji_" + e)
+                    .put("roles", DataArray.empty()).put("require_colons", true).put("managed", false)
+                    .put("animated", false).put("available", true));
+        }
+        DataArray stickers = DataArray.empty();
+        for (int s = 0; s < 5; s++) {
+            stickers.add(DataObject.empty().put("id", guildId + 3000 + s).put("name", "sticker " + s)
+                    .put("tags", "wave").put("type", 2).put("format_type", 1).put("description", "sticker")
+                    .put("available", true).put("guild_id", guildId));
+        }
+        DataArray members = DataArray.empty();
+        DataArray voiceStates = DataArray.empty();
+        for (int m = 0; m < 100; m++) {
+            long userId = m == 0 ? SELF_ID : guildId + 10_000 + m;
+            members.add(DataObject.empty()
+                    .put("user", DataObject.empty().put("id", userId).put("username", "user" + m)
+                            .put("discriminator", "0").put("global_name", "User " + m).put("avatar", null))
+                    .put("nick", "nick " + m).put("roles", DataArray.fromCollection(List.of(guildId + 101)))
+                    .put("joined_at", "2024-01-01T00:00:00.000000+00:00").put("deaf", false).put("mute", false)
+                    .put("flags", 0));
+            if (m > 0 && m <= 10) {
+                voiceStates.add(DataObject.empty().put("user_id", userId).put("channel_id", guildId + 1004)
+                        .put("session_id", "session-" + m).put("deaf", false).put("mute", false)
+                        .put("self_deaf", false).put("self_mute", false).put("self_video", false)
+                        .put("suppress", false));
+            }
+        }
+        return DataObject.empty().put("id", guildId).put("name", "guild " + guildId).put("icon", null)
+                .put("owner_id", guildId + 10_001).put("afk_timeout", 300).put("verification_level", 1)
+                .put("default_message_notifications", 1).put("explicit_content_filter", 0).put("mfa_level", 0)
+                .put("nsfw_level", 0).put("premium_tier", 0).put("preferred_locale", "en-US")
+                .put("features", DataArray.empty()).put("member_count", 5000).put("large", true)
+                .put("roles", roles).put("channels", channels).put("threads", DataArray.empty())
+                .put("emojis", emojis).put("stickers", stickers).put("members", members)
+                .put("voice_states", voiceStates).put("guild_scheduled_events", DataArray.empty())
+                .put("presences", DataArray.empty());
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,107 @@
+package com.tonediscord.tone.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GuildResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private GuildResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new GuildResponseCache(meterRegistry, new ObjectMapper(), 100, Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(cache, "enabled", true);
+    }
+
+    @Test
+    void servesTheCachedResponseUntilItsGroupIsInvalidated() {
+        GuildResponseCache.CachedResponse<Map<String, Integer>> first = stats("g1");
+
+        assertThat(stats("g1")).isSameAs(first);
+        cache.invalidate(GuildResponseCache.Group.SUMMARY, "g1");
+        assertThat(stats("g1")).isNotSameAs(first);
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.counter("tone.api.cache", "result", "hit").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("tone.api.cache", "result", "stale").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void writesToOtherGroupsOrGuildsLeaveTheEntryAlone() {
+        GuildResponseCache.CachedResponse<Map<String, Integer>> first = stats("g1");
+
+        cache.invalidate(GuildResponseCache.Group.ROLLUP, "g1");
+        cache.invalidate(GuildResponseCache.Group.WINDOW, "g1");
+        cache.invalidate(GuildResponseCache.Group.SUMMARY, List.of("g2", "g3"));
+        cache.invalidateAll(GuildResponseCache.Group.ROLLUP);
+
+        assertThat(stats("g1")).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void invalidatingAGroupForAllGuildsStalesGuildsWithNoVersionYet() {
+        GuildResponseCache.CachedResponse<Map<String, Integer>> first = stats("g1");
+
+        cache.invalidateAll(GuildResponseCache.Group.SUMMARY);
+
+        assertThat(stats("g1")).isNotSameAs(first);
+    }
+
+    @Test
+    void aWriteDuringTheLoadMakesTheLoadedEntryStale() {
+        cache.get("g1", GuildResponseCache.Group.SUMMARY, "stats", () -> {
+            cache.invalidate(GuildResponseCache.Group.SUMMARY, "g1");
+            return Map.of("totalMessages", loads.incrementAndGet());
+        });
+
+        stats("g1");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void etagIsAStrongHashOfTheSerializedBody() {
+        Map<String, Object> ordered = new LinkedHashMap<>();
+        ordered.put("a", 1);
+        ordered.put("b", List.of("x", "y"));
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        reversed.put("b", List.of("x", "y"));
+        reversed.put("a", 1);
+
+        String etag = cache.get("g1", GuildResponseCache.Group.SUMMARY, "one", () -> ordered).etag();
+
+        assertThat(etag).matches("\"[0-9a-f]{64}\"");
+        // Same content gives the same tag regardless of map order or which guild and resource it came from
+        assertThat(cache.get("g2", GuildResponseCache.Group.ROLLUP, "two", () -> reversed).etag()).isEqualTo(etag);
+        assertThat(cache.get("g3", GuildResponseCache.Group.SUMMARY, "one", () -> Map.of("a", 2)).etag())
+                .isNotEqualTo(etag);
+    }
+
+    @Test
+    void loadsEveryTimeWhenDisabled() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+
+        stats("g1");
+        GuildResponseCache.CachedResponse<Map<String, Integer>> second = stats("g1");
+
+        assertThat(loads).hasValue(2);
+        assertThat(second.etag()).isNotBlank();
+    }
+
+    private GuildResponseCache.CachedResponse<Map<String, Integer>> stats(String guildId) {
+        return cache.get(guildId, GuildResponseCache.Group.SUMMARY, "stats",
+                () -> Map.of("totalMessages", loads.incrementAndGet()));
+    }
+}
@@ -0,0 +1,66 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HuggingFaceSentimentEngineTest {
+
+    @Test
+    void picksTheHighestScoringLabelForEachInput() {
+        HuggingFaceSentimentEngine engine = engineAnswering("""
+                [[{"label": "negative", "score": 0.1}, {"label": "positive", "score": 0.9}],
+                 [{"label": "negative", "score": 0.8}, {"label": "positive", "score": 0.2}]]
+                """);
+
+        List<SentimentResponse> results = engine.analyzeBatch(List.of("good", "bad")).block();
+
+        assertThat(results).extracting(SentimentResponse::getLabel).containsExactly("POSITIVE", "NEGATIVE");
+        assertThat(results.get(0).getScore()).isEqualTo(0.9);
+        assertThat(results.get(1).getScore()).isEqualTo(-0.8);
+    }
+
+    @Test
+    void failsTheBatchInsteadOfScoringAnEmptyAnswerNeutral() {
+        HuggingFaceSentimentEngine engine = engineAnswering("[[{\"label\": \"positive\", \"score\": 0.9}], []]");
+
+        assertThatThrownBy(() -> engine.analyzeBatch(List.of("good", "?")).block())
+                .isInstanceOf(InferenceUnavailableException.class);
+    }
+
+    @Test
+    void failsTheBatchInsteadOfScoringAMalformedAnswerNeutral() {
+        HuggingFaceSentimentEngine engine = engineAnswering("[[{\"label\": \"positive\"}]]");
+
+        assertThatThrownBy(() -> engine.analyzeBatch(List.of("good")).block())
+                .isInstanceOf(InferenceUnavailableException.class);
+    }
+
+    @Test
+    void isTheOnlyEngineBehindTheRequestBudget() {
+        assertThat(engineAnswering("[]").isRemote()).isTrue();
+    }
+
+    private static HuggingFaceSentimentEngine engineAnswering(String json) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> Mono.just(
+                ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(json)
+                        .build()));
+        HuggingFaceSentimentEngine engine = new HuggingFaceSentimentEngine(builder);
+        ReflectionTestUtils.setField(engine, "huggingFaceApiUrl", "http://localhost/model");
+        ReflectionTestUtils.setField(engine, "huggingFaceApiKey", "test-key");
+        return engine;
+    }
+}
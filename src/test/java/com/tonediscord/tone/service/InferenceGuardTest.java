@@ -0,0 +1,82 @@
+package com.tonediscord.tone.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InferenceGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void backgroundRequestsLeaveTheReserveForLiveTraffic() {
+        // One request an hour: the bucket does not refill within the test
+        InferenceGuard guard = guard(1, 5, 2);
+
+        // Three tokens are above the reserve of two
+        for (int i = 0; i < 3; i++) {
+            assertThat(call(guard, InferenceGuard.Priority.BACKGROUND)).isEqualTo("ok");
+        }
+        assertThat(guard.isAvailable(InferenceGuard.Priority.BACKGROUND)).isFalse();
+        assertThatThrownBy(() -> call(guard, InferenceGuard.Priority.BACKGROUND))
+                .isInstanceOf(InferenceUnavailableException.class);
+
+        // The reserve is still there for live messages
+        assertThat(guard.isAvailable(InferenceGuard.Priority.LIVE)).isTrue();
+        assertThat(call(guard, InferenceGuard.Priority.LIVE)).isEqualTo("ok");
+        assertThat(call(guard, InferenceGuard.Priority.LIVE)).isEqualTo("ok");
+        assertThatThrownBy(() -> call(guard, InferenceGuard.Priority.LIVE))
+                .isInstanceOf(InferenceUnavailableException.class);
+
+        assertThat(meterRegistry.counter("tone.analysis.rejected", "reason", "background-deferred").count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.counter("tone.analysis.rejected", "reason", "budget-exhausted").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void liveRequestsCanUseTheWholeBucket() {
+        InferenceGuard guard = guard(1, 3, 2);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(call(guard, InferenceGuard.Priority.LIVE)).isEqualTo("ok");
+        }
+        assertThatThrownBy(() -> call(guard, InferenceGuard.Priority.LIVE))
+                .isInstanceOf(InferenceUnavailableException.class);
+    }
+
+    @Test
+    void aReserveAsLargeAsTheBucketStillLetsOneBackgroundRequestThrough() {
+        InferenceGuard guard = guard(1, 2, 10);
+
+        assertThat(call(guard, InferenceGuard.Priority.BACKGROUND)).isEqualTo("ok");
+        assertThatThrownBy(() -> call(guard, InferenceGuard.Priority.BACKGROUND))
+                .isInstanceOf(InferenceUnavailableException.class);
+    }
+
+    @Test
+    void anOpenCircuitStopsBothPriorities() {
+        InferenceGuard guard = guard(0, 5, 2);
+        for (int i = 0; i < 2; i++) {
+            Mono<String> failing = guard.call(() -> Mono.error(new IllegalStateException("model down")));
+            assertThatThrownBy(failing::block).hasMessage("model down");
+        }
+
+        assertThat(guard.isAvailable(InferenceGuard.Priority.LIVE)).isFalse();
+        assertThat(guard.isAvailable(InferenceGuard.Priority.BACKGROUND)).isFalse();
+    }
+
+    private InferenceGuard guard(int maxRequestsPerHour, int burst, int backgroundReserve) {
+        return new InferenceGuard(meterRegistry, maxRequestsPerHour, burst, backgroundReserve, Duration.ZERO, 2,
+                Duration.ofMinutes(1));
+    }
+
+    private static String call(InferenceGuard guard, InferenceGuard.Priority priority) {
+        return guard.call(priority, () -> Mono.just("ok")).block(Duration.ofSeconds(5));
+    }
+}
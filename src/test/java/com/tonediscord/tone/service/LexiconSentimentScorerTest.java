@@ -0,0 +1,119 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LexiconSentimentScorerTest {
+
+    // Lexicon valences the expectations below are built from
+    private static final double GREAT = 3.1;
+    private static final double HATE = -2.7;
+    private static final double HEART = 2.9;
+    private static final double SPARKLES = 1.2;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LexiconSentimentScorer scorer;
+
+    @BeforeEach
+    void setUp() {
+        scorer = new LexiconSentimentScorer(meterRegistry, new ClassPathResource("sentiment/lexicon.tsv"));
+        ReflectionTestUtils.setField(scorer, "enabled", true);
+        ReflectionTestUtils.setField(scorer, "minConfidence", 0.5);
+        ReflectionTestUtils.setField(scorer, "maxTokens", 12);
+    }
+
+    @Test
+    void scoresAOneSidedMessage() {
+        SentimentResponse result = scorer.score("this is great");
+
+        assertThat(result.getLabel()).isEqualTo("POSITIVE");
+        assertThat(result.getScore()).isCloseTo(compound(GREAT), within(1e-9));
+        assertThat(scorer.score("i hate mondays").getScore()).isCloseTo(compound(HATE), within(1e-9));
+    }
+
+    @Test
+    void escalatesNegatedMessages() {
+        assertThat(scorer.score("this is not great")).isNull();
+        assertThat(scorer.score("i don't hate it")).isNull();
+        assertThat(scorer.score("great without the lag")).isNull();
+    }
+
+    @Test
+    void escalatesContrastedMessages() {
+        assertThat(scorer.score("great map but the lag")).isNull();
+        assertThat(scorer.score("great map, though")).isNull();
+    }
+
+    @Test
+    void escalatesMixedQuestionsAndUnknownMessages() {
+        assertThat(scorer.score("love the map hate the lag")).isNull();
+        assertThat(scorer.score("is this great?")).isNull();
+        assertThat(scorer.score("the meeting moved to thursday")).isNull();
+        assertThat(scorer.score("great " + "word ".repeat(12))).isNull();
+    }
+
+    @Test
+    void boostersAddTheVaderIncrementToTheNextHit() {
+        assertThat(scorer.score("this is very great").getScore()).isCloseTo(compound(GREAT + 0.293), within(1e-9));
+        assertThat(scorer.score("i really hate it").getScore()).isCloseTo(compound(HATE - 0.293), within(1e-9));
+        // An unknown word in between drops the boost
+        assertThat(scorer.score("very big great").getScore()).isCloseTo(compound(GREAT), within(1e-9));
+    }
+
+    @Test
+    void capsEmphasiseAWordOnlyWhenTheRestIsNotShouted() {
+        assertThat(scorer.score("this is GREAT").getScore()).isCloseTo(compound(GREAT + 0.733), within(1e-9));
+        assertThat(scorer.score("THIS IS GREAT").getScore()).isCloseTo(compound(GREAT), within(1e-9));
+    }
+
+    @Test
+    void exclamationsAreCappedAtFour() {
+        assertThat(scorer.score("great!!").getScore()).isCloseTo(compound(GREAT + 2 * 0.292), within(1e-9));
+        assertThat(scorer.score("great!!!!!!!!").getScore()).isCloseTo(compound(GREAT + 4 * 0.292), within(1e-9));
+    }
+
+    @Test
+    void foldsEmojiVariationSelectors() {
+        assertThat(scorer.score("❤️").getScore()).isCloseTo(compound(HEART), within(1e-9));
+        assertThat(scorer.score("❤").getScore()).isCloseTo(compound(HEART), within(1e-9));
+        // Only the bare sparkles are in the lexicon, so the selector has to be stripped for the lookup
+        assertThat(scorer.score("great ✨️").getScore())
+                .isCloseTo(compound(GREAT + SPARKLES), within(1e-9));
+        assertThat(scorer.score("great ✨️✨").getScore())
+                .isCloseTo(compound(GREAT + 2 * SPARKLES), within(1e-9));
+    }
+
+    @Test
+    void lowConfidenceScoresAreEscalated() {
+        // "good" alone normalises to about 0.44
+        assertThat(scorer.score("good")).isNull();
+    }
+
+    @Test
+    void countsHitsAndEscalations() {
+        scorer.score("this is great");
+        scorer.score("this is not great");
+        scorer.score("is it great?");
+
+        assertThat(meterRegistry.counter("tone.analysis.lexicon", "outcome", "hit").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("tone.analysis.lexicon", "outcome", "escalated").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void returnsNothingWhenDisabled() {
+        ReflectionTestUtils.setField(scorer, "enabled", false);
+
+        assertThat(scorer.score("this is great")).isNull();
+    }
+
+    private static double compound(double sum) {
+        return sum / Math.sqrt(sum * sum + 15.0);
+    }
+}
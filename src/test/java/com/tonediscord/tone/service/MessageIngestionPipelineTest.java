@@ -0,0 +1,133 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import com.tonediscord.tone.entity.DiscordMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageIngestionPipelineTest {
+
+    private final MessageProcessingService processingService = mock(MessageProcessingService.class);
+    private final SentimentAnalysisService sentimentService = mock(SentimentAnalysisService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MessageIngestionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new MessageIngestionPipeline(processingService, sentimentService, meterRegistry, 100, 8);
+        ReflectionTestUtils.setField(pipeline, "persistWorkers", 1);
+        ReflectionTestUtils.setField(pipeline, "persistBatchSize", 200);
+        ReflectionTestUtils.setField(pipeline, "analyzeWorkers", 2);
+        ReflectionTestUtils.setField(pipeline, "aggregateWorkers", 1);
+        ReflectionTestUtils.setField(pipeline, "aggregateBatchSize", 100);
+        ReflectionTestUtils.setField(pipeline, "overloadPolicy", MessageIngestionPipeline.OverloadPolicy.SPILL);
+        when(sentimentService.analyzeSentimentAsync(anyString()))
+                .thenReturn(Mono.just(new SentimentResponse("POSITIVE", 0.8)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void retriesABatchTheDatabaseRejected() {
+        DiscordMessage message = message("1");
+        when(processingService.storeMessages(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(List.of(message));
+        pipeline.start();
+
+        pipeline.submit(message);
+
+        verify(processingService, timeout(5000)).applySentiments(eq(List.of(message)), anyList());
+        assertThat(meterRegistry.counter("tone.ingestion.persist.retries").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void marksMessagesScoredWhileTheLastBatchWasBeingWrittenTogether() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        when(processingService.storeMessages(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> {
+            firstBatchStarted.countDown();
+            releaseFirstBatch.await(5, TimeUnit.SECONDS);
+            return null;
+        }).doNothing().when(processingService).applySentiments(anyList(), anyList());
+        pipeline.start();
+
+        pipeline.submit(message("1"));
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        pipeline.submit(message("2"));
+        pipeline.submit(message("3"));
+        pipeline.submit(message("4"));
+        Gauge aggregateDepth = meterRegistry.get("tone.ingestion.queue.depth").tag("stage", "aggregate").gauge();
+        await(() -> aggregateDepth.value() == 3);
+        releaseFirstBatch.countDown();
+
+        verify(processingService, timeout(5000)).applySentiments(argThat(messages -> messages.size() == 3), anyList());
+        verify(processingService, times(2)).applySentiments(anyList(), anyList());
+    }
+
+    @Test
+    void storesTheBatchAWorkerWasHoldingWhenShutDown() throws Exception {
+        CountDownLatch firstAttempt = new CountDownLatch(1);
+        List<DiscordMessage> batch = List.of(message("1"));
+        when(processingService.storeMessages(anyList())).thenAnswer(invocation -> {
+            firstAttempt.countDown();
+            throw new DataAccessResourceFailureException("connection refused");
+        });
+        pipeline.start();
+
+        pipeline.submit(batch.get(0));
+        assertThat(firstAttempt.await(5, TimeUnit.SECONDS)).isTrue();
+        pipeline.shutdown();
+        pipeline = null;
+
+        // Once by the worker before shutdown, once more by shutdown itself for the batch the worker gave back
+        verify(processingService, atLeast(2)).storeMessages(batch);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static DiscordMessage message(String discordId) {
+        DiscordMessage message = new DiscordMessage();
+        message.setId(Long.valueOf(discordId));
+        message.setDiscordMessageId(discordId);
+        message.setGuildId("guild");
+        message.setMessageContent("hello there");
+        return message;
+    }
+}
@@ -0,0 +1,107 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import com.tonediscord.tone.entity.DiscordMessage;
+import com.tonediscord.tone.entity.UserSentimentSummary;
+import com.tonediscord.tone.repository.DiscordMessageRepository;
+import com.tonediscord.tone.repository.UserSentimentSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MessageProcessingServiceTest {
+
+    @MockBean
+    private SentimentEngine sentimentEngine;
+
+    @Autowired
+    private MessageProcessingService processingService;
+
+    @Autowired
+    private BacklogDrainService backlogDrainService;
+
+    @Autowired
+    private SentimentSummaryAggregator summaryAggregator;
+
+    @Autowired
+    private DiscordMessageRepository messageRepository;
+
+    @Autowired
+    private UserSentimentSummaryRepository summaryRepository;
+
+    @BeforeEach
+    void stubEngine() {
+        when(sentimentEngine.name()).thenReturn("stub");
+        when(sentimentEngine.analyzeBatch(anyList())).thenAnswer(invocation -> {
+            List<String> texts = invocation.getArgument(0);
+            return Mono.just(Collections.nCopies(texts.size(), new SentimentResponse("POSITIVE", 0.9)));
+        });
+    }
+
+    @Test
+    void countsAMessageOnceWhenTheDrainerAndTheLivePathBothScoreIt() {
+        String guildId = "guild-" + UUID.randomUUID();
+        // The live path has stored the message and is still waiting on the model with its own copy of it
+        DiscordMessage live = processingService.storeMessages(List.of(message(guildId))).get(0);
+
+        backlogDrainService.drainBacklog();
+        processingService.applySentiment(live, new SentimentResponse("NEGATIVE", -0.6));
+        summaryAggregator.flush();
+
+        UserSentimentSummary summary = summaryRepository.findByUserIdAndGuildId("user-1", guildId).orElseThrow();
+        assertThat(summary.getTotalMessages()).isEqualTo(1);
+        assertThat(summary.getPositiveMessages()).isEqualTo(1);
+        assertThat(summary.getNegativeMessages()).isZero();
+
+        // The row keeps the first result rather than being overwritten by the late one
+        DiscordMessage stored = messageRepository.findById(live.getId()).orElseThrow();
+        assertThat(stored.getProcessed()).isTrue();
+        assertThat(stored.getSentimentLabel()).isEqualTo("POSITIVE");
+    }
+
+    @Test
+    void countsAMessageOnceWhenItIsAppliedTwice() {
+        String guildId = "guild-" + UUID.randomUUID();
+        DiscordMessage first = processingService.storeMessages(List.of(message(guildId))).get(0);
+        DiscordMessage second = messageRepository.findById(first.getId()).orElseThrow();
+
+        processingService.applySentiment(first, new SentimentResponse("POSITIVE", 0.9));
+        processingService.applySentiment(second, new SentimentResponse("POSITIVE", 0.9));
+        summaryAggregator.flush();
+
+        assertThat(summaryRepository.findByUserIdAndGuildId("user-1", guildId).orElseThrow().getTotalMessages())
+                .isEqualTo(1);
+    }
+
+    private static DiscordMessage message(String guildId) {
+        DiscordMessage message = new DiscordMessage();
+        message.setDiscordMessageId(UUID.randomUUID().toString());
+        message.setChannelId("channel-1");
+        message.setChannelName("general");
+        message.setGuildId(guildId);
+        message.setGuildName("Test Guild");
+        message.setUserId("user-1");
+        message.setUsername("user");
+        message.setDisplayName("User");
+        message.setMessageContent("the meeting moved to thursday afternoon");
+        message.setTimestamp(LocalDateTime.now(ZoneOffset.UTC));
+        message.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+        return message;
+    }
+}
@@ -0,0 +1,69 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class OnnxSentimentEngineTest {
+
+    private static final List<String> CARDIFF_LABELS = List.of("negative", "neutral", "positive");
+
+    @Test
+    void mapsTheWinningClassInModelOrder() {
+        assertThat(OnnxSentimentEngine.toResponse(new float[]{3f, 0f, -1f}, CARDIFF_LABELS).getLabel())
+                .isEqualTo("NEGATIVE");
+        assertThat(OnnxSentimentEngine.toResponse(new float[]{-1f, 3f, 0f}, CARDIFF_LABELS).getLabel())
+                .isEqualTo("NEUTRAL");
+        assertThat(OnnxSentimentEngine.toResponse(new float[]{-1f, 0f, 3f}, CARDIFF_LABELS).getLabel())
+                .isEqualTo("POSITIVE");
+    }
+
+    @Test
+    void scoresWithTheSoftmaxProbabilitySignedByTheLabel() {
+        // softmax([2, 0, 0])[0] = e^2 / (e^2 + 2)
+        double expected = Math.exp(2) / (Math.exp(2) + 2);
+
+        SentimentResponse negative = OnnxSentimentEngine.toResponse(new float[]{2f, 0f, 0f}, CARDIFF_LABELS);
+        SentimentResponse positive = OnnxSentimentEngine.toResponse(new float[]{0f, 0f, 2f}, CARDIFF_LABELS);
+
+        assertThat(negative.getScore()).isCloseTo(-expected, within(1e-6));
+        assertThat(positive.getScore()).isCloseTo(expected, within(1e-6));
+    }
+
+    @Test
+    void scoresNeutralAsZeroHoweverConfident() {
+        SentimentResponse response = OnnxSentimentEngine.toResponse(new float[]{-5f, 9f, -5f}, CARDIFF_LABELS);
+
+        assertThat(response.getLabel()).isEqualTo("NEUTRAL");
+        assertThat(response.getScore()).isZero();
+    }
+
+    @Test
+    void staysFiniteForLargeLogits() {
+        SentimentResponse response = OnnxSentimentEngine.toResponse(new float[]{900f, 0f, 1000f}, CARDIFF_LABELS);
+
+        assertThat(response.getLabel()).isEqualTo("POSITIVE");
+        assertThat(response.getScore()).isCloseTo(1.0, within(1e-9));
+    }
+
+    @Test
+    void followsAConfiguredLabelOrder() {
+        // A two-class model exported with positive first and generic LABEL_n names
+        List<String> labels = List.of("LABEL_2", "LABEL_0");
+
+        assertThat(OnnxSentimentEngine.toResponse(new float[]{1f, 0f}, labels).getLabel()).isEqualTo("POSITIVE");
+        assertThat(OnnxSentimentEngine.toResponse(new float[]{0f, 1f}, labels).getLabel()).isEqualTo("NEGATIVE");
+    }
+
+    @Test
+    void treatsUnknownLabelsAsNeutral() {
+        SentimentResponse response = OnnxSentimentEngine.toResponse(new float[]{0f, 4f}, List.of("joy", "anger"));
+
+        assertThat(response.getLabel()).isEqualTo("NEUTRAL");
+        assertThat(response.getScore()).isZero();
+    }
+}
@@ -0,0 +1,71 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class SentimentAnalysisServiceTest {
+
+    private final SentimentEngine engine = mock(SentimentEngine.class);
+    private final InferenceGuard inferenceGuard = mock(InferenceGuard.class);
+    private SentimentAnalysisService service;
+
+    @AfterEach
+    void tearDown() {
+        service.stopBatcher();
+    }
+
+    @Test
+    void callsALocalEngineWithoutTheRequestBudget() {
+        when(engine.isRemote()).thenReturn(false);
+        startService();
+
+        assertThat(service.analyzeSentimentAsync("the meeting moved to thursday").block(Duration.ofSeconds(5))
+                .getLabel()).isEqualTo("POSITIVE");
+        verifyNoInteractions(inferenceGuard);
+    }
+
+    @Test
+    void callsARemoteEngineThroughTheRequestBudget() {
+        when(engine.isRemote()).thenReturn(true);
+        when(inferenceGuard.call(any(InferenceGuard.Priority.class), any())).thenAnswer(invocation ->
+                invocation.<Supplier<Mono<?>>>getArgument(1).get());
+        startService();
+
+        assertThat(service.analyzeSentimentAsync("the meeting moved to thursday").block(Duration.ofSeconds(5))
+                .getLabel()).isEqualTo("POSITIVE");
+        verify(inferenceGuard).call(eq(InferenceGuard.Priority.LIVE), any());
+
+        service.analyzeSentimentAsync("backfilled history", InferenceGuard.Priority.BACKGROUND)
+                .block(Duration.ofSeconds(5));
+        verify(inferenceGuard).call(eq(InferenceGuard.Priority.BACKGROUND), any());
+    }
+
+    private void startService() {
+        when(engine.name()).thenReturn("stub");
+        when(engine.analyzeBatch(anyList()))
+                .thenReturn(Mono.just(List.of(new SentimentResponse("POSITIVE", 0.4))));
+        LexiconSentimentScorer lexiconScorer = mock(LexiconSentimentScorer.class);
+        service = new SentimentAnalysisService(engine, mock(SentimentResultCache.class), lexiconScorer,
+                inferenceGuard);
+        ReflectionTestUtils.setField(service, "batchSize", 1);
+        ReflectionTestUtils.setField(service, "batchLingerMs", 0L);
+        ReflectionTestUtils.setField(service, "batchQueueCapacity", 10);
+        service.startBatcher();
+    }
+}
@@ -0,0 +1,71 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Messages/sec through SentimentBatcher and the WebClient engine against a local stub model server.
+// batchSize=1 with no linger is the unbatched path, one HTTP request per message.
+// The stub serves 4 requests at a time at 5 ms per request plus 0.2 ms per input.
+// mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+// java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main SentimentBatcherBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SentimentBatcherBenchmark {
+
+    private static final int MESSAGES = 256;
+
+    @Param({"1", "10", "32"})
+    public int batchSize;
+
+    private StubSentimentServer server;
+    private SentimentBatcher batcher;
+
+    @Setup
+    public void setUp() {
+        server = new StubSentimentServer(4, 5_000, 200);
+        HuggingFaceSentimentEngine engine = new HuggingFaceSentimentEngine(WebClient.builder());
+        ReflectionTestUtils.setField(engine, "huggingFaceApiUrl", server.url());
+        ReflectionTestUtils.setField(engine, "huggingFaceApiKey", "benchmark");
+        batcher = new SentimentBatcher(engine::analyzeBatch, batchSize, batchSize == 1 ? 0 : 25, MESSAGES * 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        batcher.shutdown();
+        server.close();
+    }
+
+    // A burst of messages in flight at once, as the ingestion pipeline submits them
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public List<SentimentResponse> burst() {
+        List<CompletableFuture<SentimentResponse>> futures = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            futures.add(batcher.submit("message " + i));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+}
@@ -0,0 +1,146 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SentimentBatcherTest {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private SentimentBatcher batcher;
+
+    @AfterEach
+    void shutdown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    void flushesAsSoonAsTheBatchIsFull() throws Exception {
+        // A linger far longer than the test proves the flush was triggered by size
+        batcher = new SentimentBatcher(recordingAnalyzer(), 3, 60_000, 100);
+
+        List<CompletableFuture<SentimentResponse>> futures = List.of(
+                batcher.submit("a"), batcher.submit("b"), batcher.submit("c"));
+
+        for (CompletableFuture<SentimentResponse> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(batches).containsExactly(List.of("a", "b", "c"));
+    }
+
+    @Test
+    void flushesAPartialBatchWhenTheLingerRunsOut() throws Exception {
+        batcher = new SentimentBatcher(recordingAnalyzer(), 10, 50, 100);
+
+        CompletableFuture<SentimentResponse> first = batcher.submit("a");
+        CompletableFuture<SentimentResponse> second = batcher.submit("b");
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertThat(batches).containsExactly(List.of("a", "b"));
+    }
+
+    @Test
+    void completesEachCallerWithItsOwnResult() throws Exception {
+        batcher = new SentimentBatcher(recordingAnalyzer(), 2, 60_000, 100);
+
+        CompletableFuture<SentimentResponse> good = batcher.submit("good");
+        CompletableFuture<SentimentResponse> bad = batcher.submit("bad");
+
+        assertThat(good.get(5, TimeUnit.SECONDS).getLabel()).isEqualTo("POSITIVE");
+        assertThat(bad.get(5, TimeUnit.SECONDS).getLabel()).isEqualTo("NEGATIVE");
+    }
+
+    @Test
+    void failsEveryCallerInTheBatchWhenTheModelFails() {
+        batcher = new SentimentBatcher(texts -> Mono.error(new IllegalStateException("model down")), 2, 60_000, 100);
+
+        CompletableFuture<SentimentResponse> first = batcher.submit("a");
+        CompletableFuture<SentimentResponse> second = batcher.submit("b");
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("model down");
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("model down");
+    }
+
+    @Test
+    void turnsCallersAwayOnceTheQueueIsFull() throws Exception {
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // The dispatcher thread is held inside the model call, so nothing leaves the queue
+        batcher = new SentimentBatcher(texts -> {
+            dispatching.countDown();
+            awaitQuietly(release);
+            return recordingAnalyzer().apply(texts);
+        }, 1, 0, 2);
+
+        CompletableFuture<SentimentResponse> inFlight = batcher.submit("in flight");
+        assertThat(dispatching.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<SentimentResponse> queued1 = batcher.submit("queued 1");
+        CompletableFuture<SentimentResponse> queued2 = batcher.submit("queued 2");
+        CompletableFuture<SentimentResponse> rejected = batcher.submit("rejected");
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(InferenceUnavailableException.class);
+
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+        queued1.get(5, TimeUnit.SECONDS);
+        queued2.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void failsQueuedCallersOnShutdown() throws Exception {
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        batcher = new SentimentBatcher(texts -> {
+            dispatching.countDown();
+            awaitQuietly(release);
+            return Mono.never();
+        }, 1, 0, 10);
+
+        batcher.submit("in flight");
+        assertThat(dispatching.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<SentimentResponse> queued = batcher.submit("queued");
+
+        batcher.shutdown();
+        release.countDown();
+
+        assertThat(queued).isCompletedExceptionally();
+        assertThat(batcher.submit("late")).isCompletedExceptionally();
+    }
+
+    private Function<List<String>, Mono<List<SentimentResponse>>> recordingAnalyzer() {
+        return texts -> {
+            batches.add(List.copyOf(texts));
+            return Mono.just(texts.stream()
+                    .map(text -> text.contains("bad")
+                            ? new SentimentResponse("NEGATIVE", -0.9)
+                            : new SentimentResponse("POSITIVE", 0.9))
+                    .toList());
+        };
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
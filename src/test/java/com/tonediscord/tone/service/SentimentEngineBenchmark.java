@@ -0,0 +1,121 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// OnnxSentimentEngine against HuggingFaceSentimentEngine talking to a local stub model server: latency of one batch
+// and messages/sec with several batches in flight. The stub serves 4 requests at a time at 5 ms per request plus
+// 0.2 ms per input, so the remote numbers are a floor; a hosted endpoint adds the network on top.
+// The ONNX side needs the exported model (model.onnx + tokenizer.json, as for tone.analysis.onnx.model-dir):
+// mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+// java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main SentimentEngineBenchmark \
+//     -jvmArgsAppend -Dtone.bench.onnx-model-dir=./models/twitter-roberta-base-sentiment
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SentimentEngineBenchmark {
+
+    private static final int MESSAGES = 256;
+    private static final int IN_FLIGHT = 4;
+    private static final String[] CHAT = {
+            "lol", "gg", "thanks!!", "anyone up for ranked tonight", "the meeting moved to thursday afternoon",
+            "this patch is so good", "brb grabbing food", "that boss fight was brutal ngl",
+            "can someone check the build, it's failing on main again", "honestly the worst update they've shipped"
+    };
+
+    @Param({"onnx", "remote"})
+    public String engineType;
+
+    @Param({"1", "32"})
+    public int batchSize;
+
+    private StubSentimentServer server;
+    private OnnxSentimentEngine onnxEngine;
+    private SentimentEngine engine;
+    private List<List<String>> batches;
+
+    @Setup
+    public void setUp() throws Exception {
+        if (engineType.equals("onnx")) {
+            String modelDir = System.getProperty("tone.bench.onnx-model-dir");
+            if (modelDir == null || !Files.exists(Path.of(modelDir, "model.onnx"))) {
+                throw new IllegalStateException("Set -Dtone.bench.onnx-model-dir to a directory with model.onnx and tokenizer.json");
+            }
+            onnxEngine = new OnnxSentimentEngine();
+            ReflectionTestUtils.setField(onnxEngine, "modelDir", Path.of(modelDir));
+            ReflectionTestUtils.setField(onnxEngine, "maxLength", 128);
+            ReflectionTestUtils.setField(onnxEngine, "concurrentBatches", 2);
+            ReflectionTestUtils.setField(onnxEngine, "padTokenId", 1L);
+            ReflectionTestUtils.setField(onnxEngine, "labels", List.of("negative", "neutral", "positive"));
+            onnxEngine.load();
+            engine = onnxEngine;
+        } else {
+            server = new StubSentimentServer(4, 5_000, 200);
+            HuggingFaceSentimentEngine remote = new HuggingFaceSentimentEngine(WebClient.builder());
+            ReflectionTestUtils.setField(remote, "huggingFaceApiUrl", server.url());
+            ReflectionTestUtils.setField(remote, "huggingFaceApiKey", "benchmark");
+            engine = remote;
+        }
+
+        batches = new ArrayList<>();
+        for (int start = 0; start < MESSAGES; start += batchSize) {
+            List<String> batch = new ArrayList<>(batchSize);
+            for (int i = start; i < Math.min(MESSAGES, start + batchSize); i++) {
+                batch.add(CHAT[i % CHAT.length]);
+            }
+            batches.add(batch);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (onnxEngine != null) {
+            onnxEngine.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<SentimentResponse> batchLatency() {
+        return engine.analyzeBatch(batches.get(0)).block();
+    }
+
+    // Several batches in flight at once, as the batcher dispatches them
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(MESSAGES)
+    public List<SentimentResponse> throughput() {
+        return Flux.fromIterable(batches)
+                .flatMapSequential(engine::analyzeBatch, IN_FLIGHT)
+                .flatMapIterable(results -> results)
+                .collectList()
+                .block();
+    }
+}
@@ -0,0 +1,69 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import com.tonediscord.tone.entity.DiscordMessage;
+import com.tonediscord.tone.entity.SentimentRollup;
+import com.tonediscord.tone.repository.SentimentRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SentimentRollupAggregatorTest {
+
+    @MockBean
+    private SentimentEngine sentimentEngine;
+
+    @Autowired
+    private MessageProcessingService processingService;
+
+    @Autowired
+    private SentimentRollupAggregator rollupAggregator;
+
+    @Autowired
+    private SentimentRollupRepository rollupRepository;
+
+    @Test
+    void countsEachMessageOnceAcrossARebuild() {
+        String guildId = "guild-" + UUID.randomUUID();
+        LocalDateTime timestamp = LocalDateTime.now(ZoneOffset.UTC);
+        score(guildId, timestamp);
+
+        // The first message is still pending in memory when the rebuild recounts it; the second arrives after
+        rollupAggregator.rebuild();
+        score(guildId, timestamp);
+        rollupAggregator.flush();
+
+        List<SentimentRollup> series = rollupRepository.findSeries(SentimentRollup.Granularity.HOUR,
+                SentimentRollup.Scope.GUILD, guildId, guildId, timestamp.minusHours(1));
+        assertThat(series).singleElement()
+                .extracting(SentimentRollup::getMessageCount)
+                .isEqualTo(2L);
+    }
+
+    private void score(String guildId, LocalDateTime timestamp) {
+        DiscordMessage message = new DiscordMessage();
+        message.setDiscordMessageId(UUID.randomUUID().toString());
+        message.setChannelId("channel-1");
+        message.setChannelName("general");
+        message.setGuildId(guildId);
+        message.setGuildName("Test Guild");
+        message.setUserId("user-1");
+        message.setUsername("user");
+        message.setDisplayName("User");
+        message.setMessageContent("the meeting moved to thursday afternoon");
+        message.setTimestamp(timestamp);
+        DiscordMessage stored = processingService.storeMessages(List.of(message)).get(0);
+        processingService.applySentiment(stored, new SentimentResponse("POSITIVE", 0.8));
+    }
+}
@@ -0,0 +1,81 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.dto.SentimentResponse;
+import com.tonediscord.tone.entity.DiscordMessage;
+import com.tonediscord.tone.repository.UserSentimentSummaryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SentimentSummaryAggregatorTest {
+
+    @MockBean
+    private SentimentEngine sentimentEngine;
+
+    @Autowired
+    private MessageProcessingService processingService;
+
+    @Autowired
+    private SentimentSummaryAggregator summaryAggregator;
+
+    @Autowired
+    private UserSentimentSummaryRepository summaryRepository;
+
+    @Test
+    void dropsIncrementsThatARebuildAlreadyCounted() {
+        String guildId = "guild-" + UUID.randomUUID();
+        score(guildId, new SentimentResponse("POSITIVE", 0.8));
+
+        // The rebuild recounts the message from discord_messages while its increment is still pending in memory
+        summaryAggregator.rebuild();
+        summaryAggregator.flush();
+
+        assertThat(totalMessages(guildId)).isEqualTo(1);
+    }
+
+    @Test
+    void flushesIncrementsRecordedAfterARebuild() {
+        String guildId = "guild-" + UUID.randomUUID();
+        score(guildId, new SentimentResponse("POSITIVE", 0.8));
+        summaryAggregator.rebuild();
+
+        score(guildId, new SentimentResponse("NEGATIVE", -0.4));
+        summaryAggregator.flush();
+
+        assertThat(totalMessages(guildId)).isEqualTo(2);
+        assertThat(summaryRepository.findByUserIdAndGuildId("user-1", guildId).orElseThrow().getSentimentSum())
+                .isCloseTo(0.4, within(1e-9));
+    }
+
+    private void score(String guildId, SentimentResponse sentiment) {
+        DiscordMessage message = new DiscordMessage();
+        message.setDiscordMessageId(UUID.randomUUID().toString());
+        message.setChannelId("channel-1");
+        message.setChannelName("general");
+        message.setGuildId(guildId);
+        message.setGuildName("Test Guild");
+        message.setUserId("user-1");
+        message.setUsername("user");
+        message.setDisplayName("User");
+        message.setMessageContent("the meeting moved to thursday afternoon");
+        message.setTimestamp(LocalDateTime.now(ZoneOffset.UTC));
+        DiscordMessage stored = processingService.storeMessages(List.of(message)).get(0);
+        processingService.applySentiment(stored, sentiment);
+    }
+
+    private int totalMessages(String guildId) {
+        return summaryRepository.findByUserIdAndGuildId("user-1", guildId).orElseThrow().getTotalMessages();
+    }
+}
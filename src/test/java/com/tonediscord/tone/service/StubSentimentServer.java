@@ -0,0 +1,87 @@
+package com.tonediscord.tone.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Local stand-in for the Hugging Face inference endpoint, for benchmarks. Like a real model server it works on a
+// fixed number of requests at a time and each request costs a fixed overhead plus a little per input.
+class StubSentimentServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final byte[] RESULT =
+            "[{\"label\":\"positive\",\"score\":0.9},{\"label\":\"negative\",\"score\":0.1}]"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+
+    StubSentimentServer(int workerThreads, long requestOverheadMicros, long perInputMicros) {
+        // Headers and body go out in separate writes; with Nagle on, the body waits ~40 ms for the client's delayed ACK.
+        // Read once when the JDK server classes load, so it has to be set before the first server is created.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 128);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        workers = Executors.newFixedThreadPool(workerThreads);
+        server.setExecutor(workers);
+        server.createContext("/model", exchange -> {
+            int inputs;
+            try (InputStream body = exchange.getRequestBody()) {
+                JsonNode request = MAPPER.readTree(body);
+                inputs = request.path("inputs").size();
+            }
+            sleepMicros(requestOverheadMicros + inputs * perInputMicros);
+
+            // One list of label scores per input, as the real endpoint answers a batch
+            byte[] response = new byte[2 + inputs * (RESULT.length + 1) - 1];
+            response[0] = '[';
+            int at = 1;
+            for (int i = 0; i < inputs; i++) {
+                if (i > 0) {
+                    response[at++] = ',';
+                }
+                System.arraycopy(RESULT, 0, response, at, RESULT.length);
+                at += RESULT.length;
+            }
+            response[at] = ']';
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/model";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    private static void sleepMicros(long micros) {
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.tonediscord.tone.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// TextNormalizer against the replaceAll chain it replaced, over a mix of plain and Discord-markup chat lines.
+// mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+// java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main TextNormalizerBenchmark -prof gc
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextNormalizerBenchmark {
+
+    private static final String[] PLAIN = {
+            "lol", "gg", "thanks!!", "anyone up for ranked tonight", "the meeting moved to thursday afternoon",
+            "this patch is so good 😂", "brb grabbing food", "that boss fight was brutal ngl",
+            "can someone check the build, it's failing on main again", "ok"
+    };
+    private static final String[] MARKUP = {
+            "<@123456789012345678> nice one", "<@!123456789012345678>   you around?", "gg <:pog:998877665544332211>",
+            "see <#112233445566778899> for the schedule", "<@&556677889900112233> raid starts in 10",
+            "  lmao\n\nthat's wild <a:dance:123123123123123123> "
+    };
+
+    private String[] messages;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Most lines need no change, as in a real channel
+        Random random = new Random(42);
+        messages = new String[1024];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = random.nextInt(4) == 0
+                    ? MARKUP[random.nextInt(MARKUP.length)]
+                    : PLAIN[random.nextInt(PLAIN.length)];
+        }
+    }
+
+    @Benchmark
+    public String regexChain() {
+        return messages[next++ & 1023]
+                .replaceAll("<@[!&]?\\d+>", "")
+                .replaceAll("<#\\d+>", "")
+                .replaceAll("<:\\w+:\\d+>", "")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    @Benchmark
+    public String scanner() {
+        return TextNormalizer.normalize(messages[next++ & 1023]);
+    }
+}
@@ -0,0 +1,75 @@
+package com.tonediscord.tone.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextNormalizerTest {
+
+    @Test
+    void stripsMentionsAndChannelRefs() {
+        assertThat(TextNormalizer.normalize("<@123> nice one")).isEqualTo("nice one");
+        assertThat(TextNormalizer.normalize("hey <@!123>, you around?")).isEqualTo("hey , you around?");
+        assertThat(TextNormalizer.normalize("<@&456> raid starts in 10")).isEqualTo("raid starts in 10");
+        assertThat(TextNormalizer.normalize("see <#789> for the schedule")).isEqualTo("see for the schedule");
+    }
+
+    @Test
+    void stripsCustomAndAnimatedEmoji() {
+        assertThat(TextNormalizer.normalize("gg <:pog:998877>")).isEqualTo("gg");
+        assertThat(TextNormalizer.normalize("<a:dance_2:123> that's wild")).isEqualTo("that's wild");
+    }
+
+    @Test
+    void keepsUnicodeEmoji() {
+        assertThat(TextNormalizer.normalize("this patch is so good 😂❤️")).isEqualTo("this patch is so good 😂❤️");
+    }
+
+    @Test
+    void keepsUrlsIncludingEmbedSuppressedOnes() {
+        assertThat(TextNormalizer.normalize("patch notes https://example.com/notes?id=1"))
+                .isEqualTo("patch notes https://example.com/notes?id=1");
+        assertThat(TextNormalizer.normalize("patch notes <https://example.com/notes>"))
+                .isEqualTo("patch notes <https://example.com/notes>");
+    }
+
+    @Test
+    void keepsMarkupThatIsNotADiscordToken() {
+        String notTokens = "<@abc> <#> <:name:> <a:x> <@123";
+
+        assertThat(TextNormalizer.normalize(notTokens)).isEqualTo(notTokens);
+        assertThat(TextNormalizer.normalize("a <3 b")).isEqualTo("a <3 b");
+    }
+
+    @Test
+    void collapsesWhitespaceRunsAndTrimsBothEnds() {
+        assertThat(TextNormalizer.normalize("  lmao\n\n that's\twild \r\n")).isEqualTo("lmao that's wild");
+        assertThat(TextNormalizer.normalize("<@1>   <@2>  hi  <#3>")).isEqualTo("hi");
+        assertThat(TextNormalizer.normalize(" \t\n")).isEmpty();
+    }
+
+    @Test
+    void returnsTextThatNeedsNoChangeWithoutCopying() {
+        String text = "anyone up for ranked tonight";
+
+        assertThat(TextNormalizer.normalize(text)).isSameAs(text);
+    }
+
+    // Everything the old replaceAll chain handled has to come out the same
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "lol", "", "   ", "<@1>", "x<@1>y", "<@!12> <@&34> <#56> <:a_b:78>", "a\u000Bb\fc", "<<@1>>",
+            "<:x:1><:y:2>", "tabs\tand\nnewlines", "<@1 2>", "ends with space ", "unicode ✨ stays"
+    })
+    void matchesTheRegexChainItReplaced(String text) {
+        String expected = text.replaceAll("<@[!&]?\\d+>", "")
+                .replaceAll("<#\\d+>", "")
+                .replaceAll("<:\\w+:\\d+>", "")
+                .replaceAll("\\s+", " ")
+                .trim();
+
+        assertThat(TextNormalizer.normalize(text)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,82 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.entity.GuildSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VibeAlertServiceTest {
+
+    private final GuildSettingsService settingsService = mock(GuildSettingsService.class);
+    private final DiscordBotService discordBotService = mock(DiscordBotService.class);
+    private VibeShiftDetector detector;
+    private VibeAlertService alertService;
+
+    @BeforeEach
+    void setUp() {
+        detector = new VibeShiftDetector(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(detector, "fastAlpha", 0.2);
+        ReflectionTestUtils.setField(detector, "baselineAlpha", 0.005);
+        ReflectionTestUtils.setField(detector, "slack", 0.4);
+        ReflectionTestUtils.setField(detector, "threshold", 6.0);
+        ReflectionTestUtils.setField(detector, "minSamples", 30);
+        ReflectionTestUtils.setField(detector, "debounce", Duration.ofMinutes(10));
+
+        alertService = new VibeAlertService(mock(VibeWindowTracker.class), detector, settingsService, discordBotService);
+        ReflectionTestUtils.setField(alertService, "alertParallelism", 2);
+        ReflectionTestUtils.setField(alertService, "alertMode", VibeAlertService.AlertMode.STREAMING);
+        alertService.start();
+
+        when(discordBotService.isConnected()).thenReturn(true);
+        when(settingsService.getSettings(anyString())).thenAnswer(invocation -> new GuildSettings(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        alertService.shutdown();
+    }
+
+    @Test
+    void sendsStreamedAlertsOffTheObservingThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch sent = new CountDownLatch(1);
+        AtomicReference<String> senderThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            // A slow Discord send must not hold up the thread that observed the message
+            release.await(5, TimeUnit.SECONDS);
+            senderThread.set(Thread.currentThread().getName());
+            sent.countDown();
+            return null;
+        }).when(discordBotService).sendVibeAlert(eq("guild"), isNull(), contains("declined"));
+
+        for (int i = 0; i < 30; i++) {
+            detector.observe("guild", "channel", 0.5);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            detector.observe("guild", "channel", -0.8);
+        }
+        long observeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        release.countDown();
+        assertThat(sent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(observeMillis).isLessThan(1000);
+        assertThat(senderThread.get()).startsWith("vibe-alert-");
+    }
+}
@@ -0,0 +1,75 @@
+package com.tonediscord.tone.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Cost of VibeShiftDetector.observe per scored message, for one busy guild and for traffic spread over many.
+// mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+// java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main VibeShiftDetectorBenchmark -prof gc
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VibeShiftDetectorBenchmark {
+
+    @Param({"1", "10000"})
+    public int guilds;
+
+    @Param({"false", "true"})
+    public boolean perChannel;
+
+    private VibeShiftDetector detector;
+    private String[] guildIds;
+    private String[] channelIds;
+    private double[] scores;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        detector = new VibeShiftDetector(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(detector, "perChannel", perChannel);
+        ReflectionTestUtils.setField(detector, "fastAlpha", 0.2);
+        ReflectionTestUtils.setField(detector, "baselineAlpha", 0.005);
+        ReflectionTestUtils.setField(detector, "slack", 0.4);
+        ReflectionTestUtils.setField(detector, "threshold", 6.0);
+        ReflectionTestUtils.setField(detector, "minSamples", 30);
+        ReflectionTestUtils.setField(detector, "debounce", Duration.ofMinutes(10));
+        // A listener is registered in production, so shifts that fire pay for the callback too
+        detector.addListener(shift -> { });
+
+        // Mostly mild chatter with the odd strongly negative message, over 8 channels per guild
+        Random random = new Random(42);
+        guildIds = new String[4096];
+        channelIds = new String[4096];
+        scores = new double[4096];
+        for (int i = 0; i < scores.length; i++) {
+            int guild = random.nextInt(guilds);
+            guildIds[i] = "guild-" + guild;
+            channelIds[i] = "channel-" + guild + "-" + random.nextInt(8);
+            scores[i] = random.nextInt(10) == 0 ? -0.9 : random.nextDouble() * 0.6 - 0.1;
+        }
+    }
+
+    @Benchmark
+    public void observe() {
+        int i = next++ & 4095;
+        detector.observe(guildIds[i], channelIds[i], scores[i]);
+    }
+}
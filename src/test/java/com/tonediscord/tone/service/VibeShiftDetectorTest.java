@@ -0,0 +1,135 @@
+package com.tonediscord.tone.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class VibeShiftDetectorTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<VibeShiftDetector.VibeShift> shifts = new ArrayList<>();
+    private VibeShiftDetector detector;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        detector = new VibeShiftDetector(meterRegistry);
+        // The application defaults
+        ReflectionTestUtils.setField(detector, "perChannel", false);
+        ReflectionTestUtils.setField(detector, "fastAlpha", 0.2);
+        ReflectionTestUtils.setField(detector, "baselineAlpha", 0.005);
+        ReflectionTestUtils.setField(detector, "slack", 0.4);
+        ReflectionTestUtils.setField(detector, "threshold", 6.0);
+        ReflectionTestUtils.setField(detector, "minSamples", 30);
+        ReflectionTestUtils.setField(detector, "debounce", Duration.ofMinutes(10));
+        detector.addListener(shifts::add);
+    }
+
+    @Test
+    void staysQuietWhileTheBaselineWarmsUp() {
+        observe("guild", 0.9, 15);
+        observe("guild", -0.9, 15);
+
+        assertThat(shifts).isEmpty();
+    }
+
+    @Test
+    void ignoresNoiseWithinTheSlack() {
+        observe("guild", 0.3, 30);
+        for (int i = 0; i < 2000; i++) {
+            observe("guild", i % 2 == 0 ? 0.6 : 0.0, 1);
+        }
+
+        assertThat(shifts).isEmpty();
+    }
+
+    @Test
+    void reportsASustainedDropOnceItAccumulatesPastTheThreshold() {
+        observe("guild", 0.5, 30);
+
+        // Each message deviates by 1.3, of which 0.4 is slack: 0.9 per message crosses 6.0 on the seventh
+        observe("guild", -0.8, 6);
+        assertThat(shifts).isEmpty();
+        observe("guild", -0.8, 1);
+
+        assertThat(shifts).singleElement().satisfies(shift -> {
+            assertThat(shift.guildId()).isEqualTo("guild");
+            assertThat(shift.channelId()).isNull();
+            assertThat(shift.baseline()).isCloseTo(0.5, within(0.05));
+            assertThat(shift.current()).isLessThan(0.0);
+        });
+        assertThat(meterRegistry.counter("tone.vibe.shifts.detected").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void reportsASustainedRise() {
+        observe("guild", -0.5, 30);
+        observe("guild", 0.9, 10);
+
+        assertThat(shifts).singleElement().satisfies(shift -> assertThat(shift.current()).isGreaterThan(shift.baseline()));
+    }
+
+    @Test
+    void relearnsTheBaselineSoASustainedShiftIsReportedOnce() {
+        observe("guild", 0.5, 30);
+        observe("guild", -0.8, 500);
+
+        assertThat(shifts).hasSize(1);
+    }
+
+    @Test
+    void debouncesShiftsThatFollowTooSoon() {
+        observe("guild", 0.5, 30);
+        observe("guild", -0.8, 10);
+        // Relearned at -0.8 and swinging straight back, still inside the 10 minute debounce
+        observe("guild", -0.8, 30);
+        observe("guild", 0.5, 10);
+        assertThat(shifts).hasSize(1);
+
+        now += 11 * MINUTE;
+        observe("guild", 0.5, 30);
+        observe("guild", -0.8, 10);
+        assertThat(shifts).hasSize(2);
+    }
+
+    @Test
+    void tracksGuildsIndependently() {
+        observe("calm", 0.5, 30);
+        observe("stormy", 0.5, 30);
+        observe("stormy", -0.8, 10);
+        observe("calm", 0.5, 10);
+
+        assertThat(shifts).extracting(VibeShiftDetector.VibeShift::guildId).containsExactly("stormy");
+    }
+
+    @Test
+    void splitsStreamsByChannelWhenConfigured() {
+        ReflectionTestUtils.setField(detector, "perChannel", true);
+        for (int i = 0; i < 30; i++) {
+            detector.observe("guild", "a", 0.5, now);
+            detector.observe("guild", "b", 0.5, now);
+        }
+        for (int i = 0; i < 10; i++) {
+            detector.observe("guild", "a", -0.8, now);
+            detector.observe("guild", "b", 0.5, now);
+        }
+
+        assertThat(shifts).singleElement().satisfies(shift -> assertThat(shift.channelId()).isEqualTo("a"));
+    }
+
+    private void observe(String guildId, double score, int times) {
+        for (int i = 0; i < times; i++) {
+            detector.observe(guildId, "channel", score, now);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.tonediscord.tone.service;
+
+import com.tonediscord.tone.repository.DiscordMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+class VibeWindowTrackerTest {
+
+    private final DiscordMessageRepository messageRepository = mock(DiscordMessageRepository.class);
+
+    @Test
+    void pollingModeHandsEachActiveGuildOutOnce() {
+        VibeWindowTracker tracker = tracker(VibeAlertService.AlertMode.POLLING);
+
+        tracker.record("g1", now(), 0.5);
+        tracker.record("g1", now(), -0.1);
+        tracker.record("g2", now(), 0.2);
+
+        assertThat(tracker.drainActiveGuilds()).containsExactlyInAnyOrder("g1", "g2");
+        assertThat(tracker.drainActiveGuilds()).isEmpty();
+    }
+
+    @Test
+    void streamingModeDoesNotCollectActiveGuilds() {
+        VibeWindowTracker tracker = tracker(VibeAlertService.AlertMode.STREAMING);
+
+        tracker.record("g1", now(), 0.5);
+        tracker.record("g1", now(), -0.1);
+
+        assertThat(tracker.drainActiveGuilds()).isEmpty();
+        assertThat(tracker.getRecentAverage("g1", Duration.ofMinutes(5))).isCloseTo(0.2, within(1e-9));
+    }
+
+    private VibeWindowTracker tracker(VibeAlertService.AlertMode alertMode) {
+        return new VibeWindowTracker(messageRepository, new SimpleMeterRegistry(), 60, alertMode);
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}